@@ -0,0 +1,80 @@
+package edu.umuc.swen.benchmark;
+
+import static edu.umuc.swen.domain.util.ParsingUtil.parseDate;
+
+import java.util.Date;
+import java.util.Random;
+
+import edu.umuc.swen.domain.Address;
+import edu.umuc.swen.domain.Course;
+import edu.umuc.swen.domain.HybridCourse;
+import edu.umuc.swen.domain.LabCourse;
+import edu.umuc.swen.domain.Location;
+import edu.umuc.swen.domain.OnlineCourse;
+import edu.umuc.swen.domain.Student;
+
+/**
+ * Builds the courses the benchmarks run against, the same seed always gives the same data.
+ * Terms are generated with {@link edu.umuc.swen.domain.TermDataGenerator}.
+ *
+ * @author ezerbo
+ *
+ */
+final class BenchmarkData {
+
+	/**
+	 * Courses start and end far in the future so that students can be added to them
+	 */
+	private final static Date START_DATE = parseDate("09/01/2099");
+	private final static Date END_DATE = parseDate("12/15/2099");
+
+	private final static String TERM_CODE = "FL2099";
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Builds a course with students and grades, online, hybrid and lab courses are built in turn
+	 *
+	 * @param id Identifier of the course
+	 * @param students Number of students, lab courses are capped at 10
+	 * @param random Source of the data
+	 * @return the course
+	 */
+	static Course course(int id, int students, Random random) {
+		Location location = new Location(String.valueOf(100 + random.nextInt(900)), "Building " + random.nextInt(10), address(random));
+		Course course;
+		switch (id % 3) {
+		case 1:
+			course = new OnlineCourse(id, "https://swen-" + id + ".umuc.edu", "SWEN" + id, START_DATE, END_DATE, "T TH", TERM_CODE, "6:00PM - 7:30PM");
+			break;
+		case 2:
+			course = new HybridCourse(id, "SWEN" + id, START_DATE, END_DATE, "M W", "6:00PM - 7:30PM", TERM_CODE, "https://swen-" + id + ".umuc.edu", location);
+			break;
+		default:
+			course = new LabCourse(id, "SWEN" + id, START_DATE, END_DATE, "F", "1:00PM - 4:00PM", TERM_CODE, location, location);
+			students = Math.min(students, 10);
+			break;
+		}
+		for(int i = 1; i <= students; i++) {
+			course.addStudent(student(id * 100 + i, random));
+			course.changeStudentGpa(id * 100 + i, Math.round(random.nextDouble() * 40) / 10.0);
+		}
+		return course;
+	}
+
+	/**
+	 * @param id Identifier of the student
+	 * @param random Source of the data
+	 * @return a new student
+	 */
+	static Student student(int id, Random random) {
+		return new Student(id, "First" + id, "Last" + id, Math.round(random.nextDouble() * 40) / 10.0,
+				"student" + id + "@umuc.edu", address(random));
+	}
+
+	private static Address address(Random random) {
+		return new Address(String.valueOf(1 + random.nextInt(9999)), "Street " + random.nextInt(500), "Adelphi", "MD", String.valueOf(20700 + random.nextInt(100)));
+	}
+
+}
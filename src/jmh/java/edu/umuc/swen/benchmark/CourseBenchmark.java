@@ -0,0 +1,91 @@
+package edu.umuc.swen.benchmark;
+
+import static edu.umuc.swen.domain.util.ParsingUtil.getPropertyValue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.umuc.swen.domain.Course;
+import edu.umuc.swen.domain.Student;
+
+/**
+ * Operations on a single course, from an empty course to a full one
+ *
+ * @author ezerbo
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CourseBenchmark {
+
+	/**
+	 * Number of students of the course, courses hold 20 students at most
+	 */
+	@Param({"1", "10", "20"})
+	public int students;
+
+	private Course course;
+
+	private String courseContent;
+
+	private Student[] enrolled;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(42);
+		course = BenchmarkData.course(1, students, random); //An online course
+		courseContent = course.toString();
+		enrolled = course.getStudents().toArray(new Student[0]);
+	}
+
+	@Benchmark
+	public double calculateAverageGpa() {
+		return course.calculateAverageGpa();
+	}
+
+	@Benchmark
+	public void changeStudentGpa() {
+		Student student = enrolled[next++ % enrolled.length];
+		course.changeStudentGpa(student.getId(), (next & 31) / 8.0);
+	}
+
+	/**
+	 * Adds a student back right after removing it, the course may be full
+	 */
+	@Benchmark
+	public void addStudent() {
+		Student student = enrolled[next++ % enrolled.length];
+		course.removeStudent(student.getId());
+		course.addStudent(student);
+	}
+
+	@Benchmark
+	public String generateSchedule() {
+		return course.generateSchedule();
+	}
+
+	@Benchmark
+	public String getUrl() {
+		return getPropertyValue(courseContent, "url");
+	}
+
+}
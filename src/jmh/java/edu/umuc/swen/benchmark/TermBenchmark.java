@@ -0,0 +1,126 @@
+package edu.umuc.swen.benchmark;
+
+import static edu.umuc.swen.domain.util.ParsingUtil.getPropertyValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.umuc.swen.domain.Term;
+import edu.umuc.swen.domain.TermDataGenerator;
+
+/**
+ * Loading, writing and saving terms, from a single course to very large terms
+ *
+ * @author ezerbo
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TermBenchmark {
+
+	/**
+	 * Number of courses of the term, a third of them are hybrid courses and a third lab courses
+	 */
+	@Param({"1", "100", "10000"})
+	public int courses;
+
+	/**
+	 * Number of students of each course
+	 */
+	@Param({"20"})
+	public int studentsPerCourse;
+
+	private Path directory;
+
+	private String termFileName;
+
+	private String savedFileName;
+
+	private String snapshotFileName;
+
+	private String content;
+
+	private Term term;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("term-benchmark");
+		termFileName = directory.resolve("term.txt").toString();
+		savedFileName = directory.resolve("saved-term.txt").toString();
+		snapshotFileName = directory.resolve("term.snapshot").toString();
+		Term generated = new TermDataGenerator(42)
+				.courses(courses - 2 * (courses / 3), courses / 3, courses / 3)
+				.studentsPerCourse(studentsPerCourse)
+				.studentPopulation(Math.max(studentsPerCourse, courses * studentsPerCourse / 4)) //Students take 4 courses on average
+				.generate();
+		generated.saveToFile(termFileName);
+		generated.saveSnapshot(snapshotFileName);
+		content = new String(Files.readAllBytes(directory.resolve("term.txt")), StandardCharsets.UTF_8);
+		term = new Term(termFileName);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(directory.resolve("term.txt"));
+		Files.deleteIfExists(directory.resolve("saved-term.txt"));
+		Files.deleteIfExists(directory.resolve("term.snapshot"));
+		Files.deleteIfExists(directory);
+	}
+
+	@Benchmark
+	public Term loadTerm() {
+		return new Term(termFileName);
+	}
+
+	@Benchmark
+	public Term loadTermInParallel() {
+		return new Term(termFileName, true);
+	}
+
+	@Benchmark
+	public Term loadSnapshot() {
+		return Term.loadSnapshot(snapshotFileName);
+	}
+
+	@Benchmark
+	public String writeTerm() {
+		return term.toString();
+	}
+
+	@Benchmark
+	public void saveTerm() {
+		term.saveToFile(savedFileName);
+	}
+
+	@Benchmark
+	public String generateCourseSchedule() {
+		return term.generateCourseSchedule();
+	}
+
+	@Benchmark
+	public String getTermCode() {
+		return getPropertyValue(content, "termcode");
+	}
+
+}
@@ -11,6 +11,7 @@ import edu.umuc.swen.domain.Student;
 import edu.umuc.swen.domain.Term;
 import edu.umuc.swen.error.CourseOutOfRangeException;
 import edu.umuc.swen.error.InvalidStudentOperationException;
+import edu.umuc.swen.metrics.MetricsRegistry;
 import edu.umuc.swen.service.CourseManager;
 
 /**
@@ -24,6 +25,7 @@ public class CourseManagementApp {
 	private final static String PATH_TO_FILES = "./term-data/"; // Where files are created and loaded from. 
 
 	public static void main(String[] args) {
+		MetricsRegistry.getDefault().registerMBeans("edu.umuc.swen");
 		run();
 	}
 	
@@ -38,6 +40,7 @@ public class CourseManagementApp {
 			choice = scanner.nextInt();
 			switch (choice) {
 			case 0:
+				System.out.print(MetricsRegistry.getDefault().dump());
 				System.out.println("Goodbye!");
 				System.exit(0);
 				break;
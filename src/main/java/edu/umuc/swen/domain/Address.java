@@ -1,39 +1,52 @@
 package edu.umuc.swen.domain;
 
-import static edu.umuc.swen.domain.util.ParsingUtil.getPropertyValue;
+import static edu.umuc.swen.domain.util.StringPool.intern;
+import static edu.umuc.swen.domain.util.TagTokenizer.tokenize;
+
+import java.util.Objects;
+
+import edu.umuc.swen.domain.util.TagHandler;
+import edu.umuc.swen.domain.util.TagWriter;
+import edu.umuc.swen.domain.util.WeakInterner;
 
 /**
- * Domain class modeling an address
+ * Domain class modeling an address. Addresses are immutable, equal addresses can be shared
+ * by any number of students and locations (see {@link #canonical(Address)}).
  * 
  * @author ezerbo
  *
  */
-public class Address {
+public final class Address {
+	
+	/**
+	 * Canonical instances of the addresses in use
+	 */
+	private final static WeakInterner<Address> ADDRESSES = new WeakInterner<>(1 << 12);
 	
 	/**
 	 * The building number
 	 */
-	private String buildingNumber;
+	private final String buildingNumber;
 	
 	/**
 	 * The street
 	 */
-	private String street;
+	private final String street;
 	
 	/**
 	 * The city
 	 */
-	private String city;
+	private final String city;
 	
 	/**
 	 * The state
 	 */
-	private String state;
+	private final String state;
 	
 	/**
 	 * The postal code
 	 */
-	private String zipCode;
+	private final String zipCode;
 	
 	/**
 	 * Create an instance of Address using its string representation
@@ -41,20 +54,25 @@ public class Address {
 	 * @param line String to parse address data from
 	 */
 	public Address(String line) {
-		this.buildingNumber = getPropertyValue(line, "buildingnumber");
-		this.street = getPropertyValue(line, "street");
-		this.city = getPropertyValue(line, "city");
-		this.state = getPropertyValue(line, "state");
-		this.zipCode = getPropertyValue(line, "zipcode");
+		this(tokenize(line, new Reader()));
+	}
+	
+	/**
+	 * Creates an instance of Address using the values collected by a reader
+	 * 
+	 * @param reader Reader holding address data
+	 */
+	Address(Reader reader) {
+		this(reader.buildingNumber, reader.street, reader.city, reader.state, reader.zipCode);
 	}
 	
 	public Address(String buildingNumber, String street,
 			String city, String state, String zipCode) {
-		this.buildingNumber = buildingNumber;
-		this.street = street;
-		this.city = city;
-		this.state = state;
-		this.zipCode = zipCode;
+		this.buildingNumber = intern(buildingNumber);
+		this.street = intern(street);
+		this.city = intern(city);
+		this.state = intern(state);
+		this.zipCode = intern(zipCode);
 	}
 
 	/**
@@ -64,13 +82,6 @@ public class Address {
 		return buildingNumber;
 	}
 
-	/**
-	 * @param buildingNumber The building number
-	 */
-	public void setBuildingNumber(String buildingNumber) {
-		this.buildingNumber = buildingNumber;
-	}
-
 	/**
 	 * @return street The street
 	 */
@@ -78,13 +89,6 @@ public class Address {
 		return street;
 	}
 
-	/**
-	 * @param street The street
-	 */
-	public void setStreet(String street) {
-		this.street = street;
-	}
-
 	/**
 	 * @return city The city
 	 */
@@ -92,13 +96,6 @@ public class Address {
 		return city;
 	}
 
-	/**
-	 * @param city The city
-	 */
-	public void setCity(String city) {
-		this.city = city;
-	}
-
 	/**
 	 * @return state The state
 	 */
@@ -106,29 +103,40 @@ public class Address {
 		return state;
 	}
 
-	/**
-	 * @param state The state
-	 */
-	public void setState(String state) {
-		this.state = state;
-	}
-
 	/**
 	 * @return zipCode The zip code
 	 */
 	public String getZipCode() {
 		return zipCode;
 	}
-
+	
 	/**
-	 * @param zipCode The zip code
+	 * Returns the shared instance equal to an address, so that students and locations at the same address hold a single copy of it
+	 * 
+	 * @param address Address to share, may be null
+	 * @return an address equal to 'address'
 	 */
-	public void setZipCode(String zipCode) {
-		this.zipCode = zipCode;
+	public static Address canonical(Address address) {
+		return ADDRESSES.intern(address);
+	}
+	
+	@Override
+	public boolean equals(Object other) {
+		if(this == other) return true;
+		if(!(other instanceof Address)) return false;
+		Address address = (Address) other;
+		return Objects.equals(buildingNumber, address.buildingNumber) && Objects.equals(street, address.street)
+				&& Objects.equals(city, address.city) && Objects.equals(state, address.state)
+				&& Objects.equals(zipCode, address.zipCode);
 	}
 	
-	public Address clone() {
-		return new Address(buildingNumber, street, city, state, zipCode);
+	@Override
+	public int hashCode() {
+		int hash = Objects.hashCode(buildingNumber);
+		hash = 31 * hash + Objects.hashCode(street);
+		hash = 31 * hash + Objects.hashCode(city);
+		hash = 31 * hash + Objects.hashCode(state);
+		return 31 * hash + Objects.hashCode(zipCode);
 	}
 	
 	/**
@@ -146,26 +154,46 @@ public class Address {
 				.toString();
 	}
 	
+	/**
+	 * Writes the string representation of this address
+	 * 
+	 * @param out Writer to write the address to
+	 */
+	public void write(TagWriter out) {
+		out.append("<address>")
+			.value("buildingnumber", buildingNumber)
+			.value("street", street)
+			.value("city", city)
+			.value("state", state)
+			.value("zipcode", zipCode)
+			.append("</address>");
+	}
+	
 	public String toString() {
-		return new StringBuilder()
-				.append("<address>")
-				.append("<buildingnumber>")
-				.append(buildingNumber)
-				.append("</buildingnumber>")
-				.append("<street>")
-				.append(street)
-				.append("</street>")
-				.append("<city>")
-				.append(city)
-				.append("</city>")
-				.append("<state>")
-				.append(state)
-				.append("</state>")
-				.append("<zipcode>")
-				.append(zipCode)
-				.append("</zipcode>")
-				.append("</address>")
-				.toString();
+		return TagWriter.render(this::write);
+	}
+
+	/**
+	 * Collects address data from the events of a {@link edu.umuc.swen.domain.util.TagTokenizer}
+	 */
+	static class Reader implements TagHandler {
+		
+		private String buildingNumber;
+		private String street;
+		private String city;
+		private String state;
+		private String zipCode;
+		
+		public void value(String tag, String value) {
+			switch (tag) {
+			case "buildingnumber": buildingNumber = value; break;
+			case "street": street = value; break;
+			case "city": city = value; break;
+			case "state": state = value; break;
+			case "zipcode": zipCode = value; break;
+			default: break;
+			}
+		}
 	}
 
 }
\ No newline at end of file
@@ -5,29 +5,36 @@ package edu.umuc.swen.domain;
 
 import static edu.umuc.swen.domain.util.FileUtil.loadFromFile;
 import static edu.umuc.swen.domain.util.ParsingUtil.format;
-import static edu.umuc.swen.domain.util.ParsingUtil.getPropertyValue;
 import static edu.umuc.swen.domain.util.ParsingUtil.parseDate;
+import static edu.umuc.swen.domain.util.StringPool.intern;
+import static edu.umuc.swen.domain.util.TagTokenizer.tokenize;
 import static java.lang.Double.parseDouble;
 import static java.lang.Integer.parseInt;
 
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import edu.umuc.swen.domain.util.TagHandler;
+import edu.umuc.swen.domain.util.TagWriter;
 import edu.umuc.swen.error.InvalidStudentOperationException;
+import edu.umuc.swen.error.StudentNotFoundException;
 
 /**
- * Domain class modeling a course
+ * Domain class modeling a course.
+ * Students and grades are changed and read while holding the course's lock, so that courses can be changed by several threads
+ * (see {@link Term#modifyCourse(int, java.util.function.Consumer)}). Seats are reserved without locking before students are added,
+ * so that a course is never overfilled and requests made to a full course are rejected without waiting on its lock:
+ * the lock is only held to add the student to the roster, and to record the change when changes are journaled.
  * 
  * @author ezerbo
  *
  */
-public abstract class Course {
+public abstract class Course implements Cloneable {
 	
 	/**
 	 *  Maximum number of students that can be added to course, set to 20
@@ -65,14 +72,19 @@ public abstract class Course {
 	protected String meetingTimes;
 	
 	/**
-	 * List of students
+	 * List of students, indexed by student identifier
 	 */
-	protected List<Student> students = new LinkedList<>();
+	protected Roster students = new Roster();
+	
+	/**
+	 * Seats taken by the students, reserved before students are added
+	 */
+	private final SeatCounter seats = new SeatCounter(getCapacity());
 	
 	/**
 	 * Gradebook associated to the course
 	 */
-	protected Map<Integer, Double> gradebook = new HashMap<>();
+	protected Gradebook gradebook = new Gradebook();
 	
 	/**
 	 * Code of the term a course is added to
@@ -85,26 +97,42 @@ public abstract class Course {
 	 * @param line String to parse course data from
 	 */
 	public Course (String line) {
-		this.id = parseInt(getPropertyValue(line, "id"));
-		this.name = getPropertyValue(line, "name");
-		this.startDate = parseDate(getPropertyValue(line, "startdate"));
-		this.endDate = parseDate(getPropertyValue(line, "enddate"));
-		this.meetingDays = getPropertyValue(line, "meetingdays");
-		this.meetingTimes = getPropertyValue(line, "meetingtimes");
-		this.termCode = getPropertyValue(line, "termcode");
-		this.students = parseStudents(getPropertyValue(line, "students"));
-		this.gradebook = parseGradebook(getPropertyValue(line, "gradebook"));
+		this(line, new TagHandler() {});
+	}
+	
+	/**
+	 * Creates an instance of Course using its string representation.
+	 * Elements that are not common to all courses are reported to 'extension'
+	 * 
+	 * @param line String to parse course data from
+	 * @param extension Handler receiving the elements specific to a type of course
+	 */
+	protected Course(String line, TagHandler extension) {
+		this(tokenize(line, new Reader(extension)));
+	}
+	
+	private Course(Reader reader) {
+		this.id = parseInt(reader.id);
+		this.name = intern(reader.name);
+		this.startDate = parseDate(reader.startDate);
+		this.endDate = parseDate(reader.endDate);
+		this.meetingDays = intern(reader.meetingDays);
+		this.meetingTimes = intern(reader.meetingTimes);
+		this.termCode = intern(reader.termCode);
+		this.students = new Roster(reader.students.build());
+		this.seats.reset(students.size());
+		this.gradebook = reader.gradebook.grades;
 	}
 	
 	public Course(int id, String name, Date startDate, Date endDate,
 			String meetingDays, String meetingTimes, String termCode) {
 		this.id = id;
-		this.name = name;
+		this.name = intern(name);
 		this.startDate = startDate;
 		this.endDate = endDate;
-		this.meetingDays = meetingDays;
-		this.meetingTimes = meetingTimes;
-		this.termCode = termCode;
+		this.meetingDays = intern(meetingDays);
+		this.meetingTimes = intern(meetingTimes);
+		this.termCode = intern(termCode);
 	}
 	
 	/**
@@ -112,15 +140,20 @@ public abstract class Course {
 	 * 
 	 * @return Average GPA
 	 */
-	public double calculateAverageGpa() {
-		return gradebook.entrySet()
-				.stream()
-				.mapToDouble(e -> e.getValue())
-				.average()
-				.orElse(0);// Returns 0 when no entry is found in the gradebook
+	public synchronized double calculateAverageGpa() {
+		return gradebook.average();// Returns 0 when no entry is found in the gradebook, kept up to date by the gradebook
 		
 	}
 	
+	/**
+	 * Returns the distribution of the GPAs of this course, maintained as grades change
+	 * 
+	 * @return gpaStatistics
+	 */
+	public synchronized GpaStatistics getGpaStatistics() {
+		return new GpaStatistics(gradebook.size(), gradebook.average(), gradebook.min(), gradebook.max(), gradebook.variance());
+	}
+	
 	/**
 	 * Generate the schedule (example: Days: T TH, Times: 6:00PM - 6:30PM)
 	 * 
@@ -141,15 +174,83 @@ public abstract class Course {
 	 * @throws InvalidStudentOperationException When course has ended
 	 */
 	public void addStudent(Student student) throws InvalidStudentOperationException {
+		reserveSeat();
+		addReservedStudent(student, null);
+	}
+	
+	/**
+	 * Reserves a seat for a student that is added later on (see {@link #addReservedStudent(Student, TermJournal)}), without locking
+	 * 
+	 * @throws InvalidStudentOperationException When course has ended or is full, no seat is reserved then
+	 */
+	void reserveSeat() throws InvalidStudentOperationException {
+		if(reserveSeats(1) == 0)
+			throw courseFullError();
+	}
+	
+	/**
+	 * Adds a student whose seat was reserved, the student is recorded in a journal before being added
+	 * 
+	 * @param student Student to be added
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded
+	 * @throws RuntimeException When the change cannot be recorded, the student is not added and the seat is released then
+	 */
+	synchronized long addReservedStudent(Student student, TermJournal journal) {
+		long sequence;
+		try {
+			sequence = (journal != null) ? journal.addStudentToCourse(student, id) : 0;
+		} catch (RuntimeException e) {
+			seats.release(1);
+			throw e;
+		}
+		students.add(student);
+		return sequence;
+	}
+	
+	/**
+	 * Adds students in one step, as many as there are seats left: the dates are checked and seats are reserved once for all of them
+	 * 
+	 * @param newStudents Students to be added
+	 * @return the number of students added, the first ones of 'newStudents'
+	 * @throws InvalidStudentOperationException When course has ended
+	 */
+	public int addStudents(List<Student> newStudents) throws InvalidStudentOperationException {
+		int reserved = reserveSeats(newStudents.size());
+		addReservedStudents(newStudents.subList(0, reserved));
+		return reserved;
+	}
+	
+	/**
+	 * Reserves seats for students that are added later on (see {@link #addReservedStudents(List)}), as many as there are seats left
+	 * 
+	 * @param count Number of seats wanted
+	 * @return the number of seats reserved
+	 * @throws InvalidStudentOperationException When course has ended, no seat is reserved then
+	 */
+	int reserveSeats(int count) throws InvalidStudentOperationException {
 		if(hasEnded()) 
-			throw new InvalidStudentOperationException(
-					String.format("Unable to add students to this course, it has already ended on %s", format(endDate)));
+			throw courseEndedError();
 		
-		if(isCourseFull())
-			throw new InvalidStudentOperationException(
-					String.format("Unable to add students to this course, the maximum number of students (20) has been reached", format(endDate)));
-		
-		students.add(student);
+		return seats.reserveUpTo(count);
+	}
+	
+	/**
+	 * Releases seats reserved for students that are not added after all
+	 * 
+	 * @param count Number of seats reserved
+	 */
+	void releaseSeats(int count) {
+		seats.release(count);
+	}
+	
+	/**
+	 * Adds students whose seats were reserved (see {@link #reserveSeats(int)})
+	 * 
+	 * @param newStudents Students to be added
+	 */
+	synchronized void addReservedStudents(List<Student> newStudents) {
+		students.addAll(newStudents);
 	}
 	
 	/**
@@ -157,14 +258,61 @@ public abstract class Course {
 	 * 
 	 * @param studentId Identifier of the student (example: 1)
 	 * @param gpa New GPA (example: 4.0)
+	 * @throws StudentNotFoundException When the student is not in this course
 	 */
 	public void changeStudentGpa(Integer studentId, Double gpa) {
-		if(students.stream().anyMatch(s -> (s.getId() == studentId))) { //If student exists
-			gradebook.put(studentId, gpa);
-		} else {
-			//TODO replace with StudentNotFoundException
-			throw new RuntimeException(String.format("No student found with id: %s", studentId));
+		changeStudentGpa(studentId, gpa, null);
+	}
+	
+	/**
+	 * Updates a student's GPA, the change is recorded in a journal before being made
+	 * 
+	 * @param studentId Identifier of the student (example: 1)
+	 * @param gpa New GPA (example: 4.0)
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded
+	 * @throws StudentNotFoundException When the student is not in this course
+	 * @throws RuntimeException When the change cannot be recorded, the GPA is not changed then
+	 */
+	synchronized long changeStudentGpa(Integer studentId, Double gpa, TermJournal journal) {
+		if(!students.containsId(studentId)) throw new StudentNotFoundException(studentId);
+		long sequence = (journal != null) ? journal.changeStudentGpa(studentId, id, gpa) : 0;
+		gradebook.setGpa(studentId, gpa);
+		return sequence;
+	}
+	
+	/**
+	 * Updates the GPAs of many students at once, for instance a column of grades uploaded at the end of a term.
+	 * Every student is checked against the roster before any GPA is changed, statistics are refreshed once.
+	 * 
+	 * @param studentIds Identifiers of the students (example: 1)
+	 * @param gpas New GPAs (example: 4.0), at the same position as their student identifier
+	 * @throws StudentNotFoundException When a student is not in this course, no GPA is changed then
+	 */
+	public void changeStudentGpas(int[] studentIds, double[] gpas) {
+		changeStudentGpas(studentIds, gpas, null);
+	}
+	
+	/**
+	 * Updates the GPAs of many students at once (see {@link #changeStudentGpas(int[], double[])}),
+	 * the change is recorded in a journal once every student is checked and before any GPA is changed
+	 * 
+	 * @param studentIds Identifiers of the students
+	 * @param gpas New GPAs, at the same position as their student identifier
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded
+	 * @throws StudentNotFoundException When a student is not in this course, no GPA is changed then
+	 * @throws RuntimeException When the change cannot be recorded, no GPA is changed then
+	 */
+	synchronized long changeStudentGpas(int[] studentIds, double[] gpas, TermJournal journal) {
+		if(studentIds.length != gpas.length)
+			throw new RuntimeException(String.format("%s student identifiers given for %s GPAs", studentIds.length, gpas.length));
+		for(int studentId : studentIds) {
+			if(!students.containsId(studentId)) throw new StudentNotFoundException(studentId);
 		}
+		long sequence = (journal != null) ? journal.changeStudentGpas(id, studentIds, gpas) : 0;
+		gradebook.setGpas(studentIds, gpas);
+		return sequence;
 	}
 	
 	/**
@@ -174,34 +322,77 @@ public abstract class Course {
 	 * @throws InvalidStudentOperationException When course has already started
 	 */
 	public void removeStudent(int studentId) throws InvalidStudentOperationException {
+		removeStudent(studentId, null);
+	}
+	
+	/**
+	 * Removes a student from a course, the change is recorded in a journal before being made
+	 * 
+	 * @param studentId Identifier of the student to be removed
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded
+	 * @throws InvalidStudentOperationException When course has already started
+	 * @throws RuntimeException When the change cannot be recorded, the student is not removed then
+	 */
+	synchronized long removeStudent(int studentId, TermJournal journal) throws InvalidStudentOperationException {
 		if(hasStarted()) {
 			throw new InvalidStudentOperationException(
 					String.format("Unable to remove students, this course has already started on %s", format(startDate)));
 		}
-		students.removeIf(e -> (e.getId() == studentId));
+		long sequence = (journal != null) ? journal.removeStudentFromCourse(studentId, id) : 0;
+		seats.release(students.removeId(studentId));
+		return sequence;
 	}
 	
 	/**
-	 * Loads students from a file
+	 * Loads students from a file.
+	 * The file is parsed without holding the course's lock, seats are reserved for all the students or none of them.
 	 * 
 	 * @param fileName File to load students from
 	 */
 	public void loadStudents(String fileName) {
 		if(hasEnded()) {
-			throw new InvalidStudentOperationException(
-					String.format("Unable to add students to this course, it has already ended on %s", format(endDate)));
+			throw courseEndedError();
 		}
 		
 		if(isCourseFull()) {
-			throw new InvalidStudentOperationException("Unable to add students to this course, the maximum number of students (20) has been reached");
+			throw courseFullError();
 		}
 		
-		String studentLines = getPropertyValue(loadFromFile(fileName), "students");
-		List<Student> laodedStudents = parseStudents(studentLines);
-		if(laodedStudents.size() + students.size() > MAX_NUMBER_OF_STUDENTS) {
-			throw new InvalidStudentOperationException("Unable to add students to this course, the maximum number of students (20) has been reached");
+		loadStudents(parseStudents(loadFromFile(fileName)), null);
+	}
+	
+	/**
+	 * Adds the students loaded from a file, seats are reserved for all the students or none of them.
+	 * The students are recorded in a journal, as a single record, before being added.
+	 * 
+	 * @param loadedStudents Students parsed from the file
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded
+	 * @throws InvalidStudentOperationException When course has ended or has too few seats left
+	 * @throws RuntimeException When the change cannot be recorded, no student is added then
+	 */
+	synchronized long loadStudents(List<Student> loadedStudents, TermJournal journal) {
+		if(hasEnded()) {
+			throw courseEndedError();
+		}
+		
+		if(!seats.reserve(loadedStudents.size())) {
+			throw courseFullError();
+		}
+		long sequence;
+		try {
+			sequence = (journal != null && !loadedStudents.isEmpty())
+					? journal.addStudentsToCourses(loadedStudents.stream()
+							.map(student -> new Enrollment(student, id))
+							.collect(Collectors.toList()))
+					: 0;
+		} catch (RuntimeException e) {
+			seats.release(loadedStudents.size());
+			throw e;
 		}
-		students.addAll(laodedStudents);
+		students.addAll(loadedStudents);
+		return sequence;
 	}
 	
 	/**
@@ -209,16 +400,88 @@ public abstract class Course {
 	 * 
 	 * @return isCourseFull
 	 */
-	private boolean isCourseFull() {
-		return students.size() == MAX_NUMBER_OF_STUDENTS;
+	protected boolean isCourseFull() {
+		return seats.isFull();
+	}
+	
+	/**
+	 * @return the error reported when students are added to this course while it is full
+	 */
+	InvalidStudentOperationException courseFullError() {
+		return new InvalidStudentOperationException(
+				String.format("Unable to add students to this course, the maximum number of students (%s) has been reached", getCapacity()));
+	}
+	
+	/**
+	 * @return the error reported when students are added to this course after it ended
+	 */
+	private InvalidStudentOperationException courseEndedError() {
+		return new InvalidStudentOperationException(
+				String.format("Unable to add students to this course, it has already ended on %s", format(endDate)));
+	}
+	
+	/**
+	 * Returns the maximum number of students of this course, called while the course is being created
+	 * 
+	 * @return capacity
+	 */
+	protected int getCapacity() {
+		return MAX_NUMBER_OF_STUDENTS;
+	}
+	
+	/**
+	 * Copies this course as it is now, used to take a snapshot of a term while its courses keep changing.
+	 * The copy holds its own students and grades, other fields are shared: the copy is only read.
+	 * 
+	 * @return the copy
+	 */
+	synchronized Course copy() {
+		Course copy;
+		try {
+			copy = (Course) clone();
+		} catch (CloneNotSupportedException e) {
+			throw new RuntimeException(e); //Course is Cloneable
+		}
+		copy.students = new Roster(students);
+		copy.gradebook = gradebook.copy();
+		return copy;
+	}
+	
+	/**
+	 * Adds a student without checking the dates or the number of students,
+	 * used to replay changes that were checked when they were first made
+	 * 
+	 * @param student Student to be added
+	 */
+	synchronized void restoreStudent(Student student) {
+		students.add(student);
+		seats.reset(students.size());
+	}
+	
+	/**
+	 * Removes a student without checking the dates, used to replay changes that were checked when they were first made
+	 * 
+	 * @param studentId Identifier of the student
+	 */
+	synchronized void restoreStudentRemoval(int studentId) {
+		seats.release(students.removeId(studentId));
+	}
+	
+	/**
+	 * Replaces the students of this course, used when the course is decoded
+	 * 
+	 * @param students Students of the course
+	 */
+	synchronized void restoreStudents(Roster students) {
+		this.students = students;
+		seats.reset(students.size());
 	}
 
 	/**
-	 * Parses student records, separated by new lines, from a string.
+	 * Parses student records from a string.
 	 * It returns an empty list when no student records are found
-	 * Otherwise, it splits the string passed as parameter and for each student record,
-	 * it creates an instance of Student.
-	 * It then collects all the records into a list and returns it.
+	 * Otherwise, it creates an instance of Student for each &lt;student&gt; element
+	 * and collects all the records into a list.
 	 * 
 	 * 
 	 * @param students String to parse student records from
@@ -226,27 +489,7 @@ public abstract class Course {
 	 */
 	protected List<Student> parseStudents(String students) {
 		if(Objects.isNull(students)) return new LinkedList<>(); // When the course is missing students
-		return Arrays.stream(students.split("\n")).filter(e -> !e.isEmpty())
-				.map(studentLine -> new Student(studentLine))
-				.collect(Collectors.toList());
-	}
-	
-	/**
-	 * Parses gradebook records, separated by new lines, from a string
-	 * 
-	 * @param gradebook string to parse gradebook records from
-	 * @return gradebook The Gradebook
-	 */
-	private Map<Integer, Double> parseGradebook(String gradebook) {
-		if(Objects.isNull(gradebook)) return new HashMap<>(); // When the course is missing students
-		Map<Integer, Double> grades = new HashMap<>();
-		Arrays.stream(gradebook.split("\n")).filter(e -> !e.isEmpty())
-		.forEach(gradebookEntry -> {
-			Integer studentId = parseInt(getPropertyValue(gradebookEntry, "studentid"));
-			Double gpa = parseDouble(getPropertyValue(gradebookEntry, "gpa"));
-			grades.put(studentId, gpa);
-		});
-		return grades;
+		return tokenize(students, new StudentsReader()).build();
 	}
 	
 	/**
@@ -255,7 +498,7 @@ public abstract class Course {
 	 * @param studentId Identifier of student
 	 * @return student's GPA
 	 */
-	public Double getStudentGPA(Integer studentId) {
+	public synchronized Double getStudentGPA(Integer studentId) {
 		return gradebook.get(studentId);
 		
 	}
@@ -335,73 +578,155 @@ public abstract class Course {
 	}
 
 	/**
-	 * @return the students
+	 * @return a read-only view of the students, to be read while holding the course's lock when the course is changed by other threads.
+	 * Students are added and removed through the course, which keeps its seat count up to date.
 	 */
 	public List<Student> getStudents() {
-		return students;
+		return Collections.unmodifiableList(students);
 	}
 
 	/**
-	 * @return the gradebook
+	 * @return a read-only view of the gradebook, to be read while holding the course's lock when the course is changed by other threads
 	 */
 	public Map<Integer, Double> getGradebook() {
-		return new HashMap<>(gradebook);
+		return gradebook;
+	}
+	
+	/**
+	 * Writes the string representation of this course.
+	 * Subclasses wrap it with their own tag and add their specific elements.
+	 * 
+	 * @param out Writer to write the course to
+	 */
+	public synchronized void write(TagWriter out) {
+		out.value("id", id)
+			.value("termcode", termCode)
+			.value("name", name)
+			.value("startdate", format(startDate))
+			.value("enddate", format(endDate))
+			.value("meetingdays", meetingDays)
+			.value("meetingtimes", meetingTimes)
+			.append("\n<students>\n");
+		writeStudentRecords(out);
+		out.append("\n</students>\n")
+			.append("<gradebook>\n");
+		writeGradebookRecords(out);
+		out.append("\n</gradebook>\n");
 	}
 	
 	public String toString() {
-		return new StringBuilder()
-				.append("<id>")
-				.append(id)
-				.append("</id>")
-				.append("<termcode>")
-				.append(termCode)
-				.append("</termcode>")
-				.append("<name>")
-				.append(name)
-				.append("</name>")
-				.append("<startdate>")
-				.append(format(startDate))
-				.append("</startdate>")
-				.append("<enddate>")
-				.append(format(endDate))
-				.append("</enddate>")
-				.append("<meetingdays>")
-				.append(meetingDays)
-				.append("</meetingdays>")
-				.append("<meetingtimes>")
-				.append(meetingTimes)
-				.append("</meetingtimes>")
-				.append("\n<students>\n")
-				.append(formatStudentRecords())
-				.append("\n</students>\n")
-				.append("<gradebook>\n")
-				.append(formatGradebookRecords())
-				.append("\n</gradebook>\n")
-				.toString();
+		return TagWriter.render(this::write);
 	}
 	
 	/**
-	 * Formats the student records.
-	 * Call toString on each student record, concatenate it with a new line, collect the result
-	 * into a list and return it.
+	 * Writes the student records, separated by new lines.
 	 * 
-	 * @return The formated student records
-	 */
-	private String formatStudentRecords() {
-		return students.stream()
-				.map(Student::toString)
-				.collect(Collectors.joining("\n"));
+	 * @param out Writer to write the student records to
+	 */
+	private void writeStudentRecords(TagWriter out) {
+		String separator = "";
+		for(Student student : students) {
+			out.append(separator);
+			student.write(out);
+			separator = "\n";
+		}
 	}
 	
 	/**
-	 * Formats the gradebook records
+	 * Writes the gradebook records, separated by new lines.
 	 * 
-	 * @return The formatted gradebook records
+	 * @param out Writer to write the gradebook records to
+	 */
+	private void writeGradebookRecords(TagWriter out) {
+		for(int i = 0; i < gradebook.size(); i++) {
+			out.append((i == 0) ? "" : "\n")
+				.append("<grade>")
+				.value("studentid", gradebook.studentIdAt(i))
+				.value("gpa", gradebook.gpaAt(i))
+				.append("</grade>");
+		}
+	}
+	
+	/**
+	 * Collects course data from the events of a {@link edu.umuc.swen.domain.util.TagTokenizer}
+	 */
+	private static class Reader implements TagHandler {
+		
+		private final TagHandler extension;
+		private String id;
+		private String name;
+		private String startDate;
+		private String endDate;
+		private String meetingDays;
+		private String meetingTimes;
+		private String termCode;
+		private StudentsReader students = new StudentsReader();
+		private GradebookReader gradebook = new GradebookReader();
+		
+		private Reader(TagHandler extension) {
+			this.extension = extension;
+		}
+		
+		public TagHandler start(String tag) {
+			switch (tag) {
+			case "students": return students;
+			case "gradebook": return gradebook;
+			default: return extension.start(tag);
+			}
+		}
+		
+		public void value(String tag, String value) {
+			switch (tag) {
+			case "id": id = value; break;
+			case "name": name = value; break;
+			case "startdate": startDate = value; break;
+			case "enddate": endDate = value; break;
+			case "meetingdays": meetingDays = value; break;
+			case "meetingtimes": meetingTimes = value; break;
+			case "termcode": termCode = value; break;
+			default: extension.value(tag, value); break;
+			}
+		}
+	}
+	
+	/**
+	 * Collects student records, one for each &lt;student&gt; element
+	 */
+	private static class StudentsReader implements TagHandler {
+		
+		private List<Student.Reader> readers = new LinkedList<>();
+		
+		public TagHandler start(String tag) {
+			if("student".equals(tag)) {
+				Student.Reader reader = new Student.Reader();
+				readers.add(reader);
+				return reader;
+			}
+			return null;
+		}
+		
+		private List<Student> build() {
+			return readers.stream()
+					.map(Student::new)
+					.collect(Collectors.toList());
+		}
+	}
+	
+	/**
+	 * Collects gradebook records (example: &lt;grade&gt;&lt;studentid&gt;1&lt;/studentid&gt;&lt;gpa&gt;4.0&lt;/gpa&gt;&lt;/grade&gt;)
 	 */
-	private String formatGradebookRecords() {
-		return gradebook.entrySet().stream()
-				.map(e -> String.format("<grade><studentid>%s</studentid><gpa>%s</gpa></grade>", e.getKey(), e.getValue()))
-				.collect(Collectors.joining("\n"));
+	private static class GradebookReader implements TagHandler {
+		
+		private Gradebook grades = new Gradebook();
+		private int studentId;
+		
+		public void value(String tag, String value) {
+			switch (tag) {
+			case "studentid": studentId = parseInt(value); break;
+			case "gpa": grades.setGpa(studentId, parseDouble(value)); break;
+			default: break;
+			}
+		}
 	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package edu.umuc.swen.domain;
+
+/**
+ * Request to add a student to a course, an item of a batch enrollment (see {@link Term#addStudentsToCourses(java.util.List)})
+ * 
+ * @author ezerbo
+ *
+ */
+public class Enrollment {
+	
+	private final Student student;
+	
+	private final int courseId;
+	
+	/**
+	 * @param student Student to be added
+	 * @param courseId Identifier of the course to add the student to
+	 */
+	public Enrollment(Student student, int courseId) {
+		this.student = student;
+		this.courseId = courseId;
+	}
+	
+	public Student getStudent() {
+		return student;
+	}
+	
+	public int getCourseId() {
+		return courseId;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("student %s in course %s", student.getId(), courseId);
+	}
+	
+}
@@ -0,0 +1,53 @@
+package edu.umuc.swen.domain;
+
+/**
+ * Outcome of one item of a batch enrollment: the enrollment, and the error that prevented it when it failed
+ * 
+ * @author ezerbo
+ *
+ */
+public class EnrollmentResult {
+	
+	private final Enrollment enrollment;
+	
+	/**
+	 * Error that prevented adding the student, null when the student was added
+	 */
+	private final RuntimeException error;
+	
+	private EnrollmentResult(Enrollment enrollment, RuntimeException error) {
+		this.enrollment = enrollment;
+		this.error = error;
+	}
+	
+	static EnrollmentResult success(Enrollment enrollment) {
+		return new EnrollmentResult(enrollment, null);
+	}
+	
+	static EnrollmentResult failure(Enrollment enrollment, RuntimeException error) {
+		return new EnrollmentResult(enrollment, error);
+	}
+	
+	/**
+	 * @return indicator
+	 */
+	public boolean isSuccessful() {
+		return error == null;
+	}
+	
+	public Enrollment getEnrollment() {
+		return enrollment;
+	}
+	
+	public RuntimeException getError() {
+		return error;
+	}
+	
+	@Override
+	public String toString() {
+		return isSuccessful()
+				? String.format("%s: added", enrollment)
+				: String.format("%s: failed, message: '%s'", enrollment, error.getMessage());
+	}
+	
+}
@@ -0,0 +1,64 @@
+package edu.umuc.swen.domain;
+
+/**
+ * Distribution of the GPAs of a course at a given time
+ * 
+ * @author ezerbo
+ *
+ */
+public class GpaStatistics {
+	
+	/**
+	 * Number of GPAs
+	 */
+	private final int count;
+	
+	private final double average;
+	
+	private final double min;
+	
+	private final double max;
+	
+	/**
+	 * Population variance
+	 */
+	private final double variance;
+	
+	public GpaStatistics(int count, double average, double min, double max, double variance) {
+		this.count = count;
+		this.average = average;
+		this.min = min;
+		this.max = max;
+		this.variance = variance;
+	}
+	
+	public int getCount() {
+		return count;
+	}
+	
+	public double getAverage() {
+		return average;
+	}
+	
+	public double getMin() {
+		return min;
+	}
+	
+	public double getMax() {
+		return max;
+	}
+	
+	public double getVariance() {
+		return variance;
+	}
+	
+	public double getStandardDeviation() {
+		return Math.sqrt(variance);
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("Count: %s, Average: %s, Min: %s, Max: %s, Variance: %s", count, average, min, max, variance);
+	}
+	
+}
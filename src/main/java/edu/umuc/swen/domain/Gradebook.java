@@ -0,0 +1,359 @@
+package edu.umuc.swen.domain;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Gradebook of a course, mapping student identifiers to GPAs with primitive arrays.
+ * Grades are stored in insertion order, an open addressing table indexes them by student identifier.
+ * As a {@link java.util.Map}, the gradebook is a read-only view: grades are only changed through {@link #setGpa(int, double)}.
+ * Statistics (sum, running mean and sum of squared deviations, minimum and maximum) are updated with each grade
+ * so that they are read in constant time, or recomputed once after grades are set in bulk.
+ *
+ * @author ezerbo
+ *
+ */
+class Gradebook extends AbstractMap<Integer, Double> {
+
+	/**
+	 * Initial number of grades that can be stored before growing
+	 */
+	private final static int INITIAL_CAPACITY = 8;
+
+	/**
+	 * Student identifiers, in insertion order
+	 */
+	private int[] studentIds = new int[INITIAL_CAPACITY];
+
+	/**
+	 * GPAs, at the same position as their student identifier
+	 */
+	private double[] gpas = new double[INITIAL_CAPACITY];
+
+	/**
+	 * Open addressing table holding position + 1 of each grade, 0 marks a free slot
+	 */
+	private int[] table = new int[INITIAL_CAPACITY * 2];
+
+	/**
+	 * Number of grades
+	 */
+	private int size;
+	
+	/**
+	 * Sum of all GPAs
+	 */
+	private double sum;
+	
+	/**
+	 * Running mean and sum of squared deviations from it (Welford), used for the variance without the cancellation
+	 * of a sum of squares
+	 */
+	private double mean;
+	
+	private double squaredDeviations;
+	
+	private double min;
+	
+	private double max;
+	
+	/**
+	 * Whether 'min' and 'max' are up to date, they are only recomputed after the current
+	 * minimum or maximum GPA is replaced by a value closer to the average
+	 */
+	private boolean extremesValid = true;
+
+	/**
+	 * Sets the GPA of a student, replacing the previous one
+	 *
+	 * @param studentId Identifier of the student
+	 * @param gpa GPA of the student
+	 */
+	void setGpa(int studentId, double gpa) {
+		int position = position(studentId);
+		if(position != -1) {
+			double previous = gpas[position];
+			gpas[position] = gpa;
+			sum += gpa - previous;
+			removeDeviation(previous, size - 1);
+			addDeviation(gpa, size);
+			if((previous == min && gpa > min) || (previous == max && gpa < max)) extremesValid = false;
+			else updateExtremes(gpa);
+			return;
+		}
+		if(size == studentIds.length) grow();
+		studentIds[size] = studentId;
+		gpas[size] = gpa;
+		size++;
+		index(size - 1);
+		sum += gpa;
+		addDeviation(gpa, size);
+		updateExtremes(gpa);
+	}
+
+	/**
+	 * Sets the GPAs of many students, replacing the previous ones. Grades are written first,
+	 * statistics are then recomputed in a single pass over the GPAs.
+	 *
+	 * @param studentIds Identifiers of the students
+	 * @param gpas GPAs of the students, at the same position as their identifier
+	 */
+	void setGpas(int[] studentIds, double[] gpas) {
+		while(this.studentIds.length < size + studentIds.length) grow();
+		for(int i = 0; i < studentIds.length; i++) {
+			int position = position(studentIds[i]);
+			if(position != -1) {
+				this.gpas[position] = gpas[i];
+				continue;
+			}
+			this.studentIds[size] = studentIds[i];
+			this.gpas[size] = gpas[i];
+			size++;
+			index(size - 1);
+		}
+		recomputeStatistics();
+	}
+
+	/**
+	 * @return a copy of this gradebook, statistics included, that is not affected by later changes
+	 */
+	Gradebook copy() {
+		Gradebook copy = new Gradebook();
+		copy.studentIds = studentIds.clone();
+		copy.gpas = gpas.clone();
+		copy.table = table.clone();
+		copy.size = size;
+		copy.sum = sum;
+		copy.mean = mean;
+		copy.squaredDeviations = squaredDeviations;
+		copy.min = min;
+		copy.max = max;
+		copy.extremesValid = extremesValid;
+		return copy;
+	}
+
+	/**
+	 * @param studentId Identifier of the student
+	 * @return indicator
+	 */
+	boolean contains(int studentId) {
+		return position(studentId) != -1;
+	}
+
+	/**
+	 * @return the average GPA, 0 when the gradebook is empty
+	 */
+	double average() {
+		return (size == 0) ? 0 : sum / size;
+	}
+	
+	/**
+	 * @return the population variance of the GPAs, 0 when the gradebook is empty
+	 */
+	double variance() {
+		return (size == 0) ? 0 : Math.max(0, squaredDeviations / size); //Removals may round slightly below 0
+	}
+	
+	/**
+	 * Returns the lowest GPA in constant time, except after the lowest GPA was raised: the next call then scans the GPAs once.
+	 * GPAs are any double, not values of a fixed grid, so they cannot be counted per value to find the next lowest one.
+	 * 
+	 * @return the lowest GPA, 0 when the gradebook is empty
+	 */
+	double min() {
+		if(!extremesValid) recomputeExtremes();
+		return (size == 0) ? 0 : min;
+	}
+	
+	/**
+	 * Returns the highest GPA in constant time, except after the highest GPA was lowered: the next call then scans the GPAs once
+	 * (see {@link #min()}).
+	 * 
+	 * @return the highest GPA, 0 when the gradebook is empty
+	 */
+	double max() {
+		if(!extremesValid) recomputeExtremes();
+		return (size == 0) ? 0 : max;
+	}
+
+	/**
+	 * @param position Position of a grade (0 to size - 1)
+	 * @return the student identifier at 'position'
+	 */
+	int studentIdAt(int position) {
+		return studentIds[position];
+	}
+
+	/**
+	 * @param position Position of a grade (0 to size - 1)
+	 * @return the GPA at 'position'
+	 */
+	double gpaAt(int position) {
+		return gpas[position];
+	}
+
+	public Double get(Object key) {
+		if(!(key instanceof Integer)) return null;
+		int position = position((Integer) key);
+		return (position != -1) ? gpas[position] : null;
+	}
+
+	public boolean containsKey(Object key) {
+		return (key instanceof Integer) && contains((Integer) key);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public Set<Entry<Integer, Double>> entrySet() {
+		return new AbstractSet<Entry<Integer, Double>>() {
+
+			public Iterator<Entry<Integer, Double>> iterator() {
+				return new Iterator<Entry<Integer, Double>>() {
+
+					private int position;
+
+					public boolean hasNext() {
+						return position < size;
+					}
+
+					public Entry<Integer, Double> next() {
+						if(position >= size) throw new NoSuchElementException();
+						Entry<Integer, Double> entry = new SimpleImmutableEntry<>(studentIds[position], gpas[position]);
+						position++;
+						return entry;
+					}
+				};
+			}
+
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * @param gpa GPA that was just added or set
+	 */
+	private void updateExtremes(double gpa) {
+		if(!extremesValid) return;
+		if(size == 1) {
+			min = gpa;
+			max = gpa;
+		} else {
+			min = Math.min(min, gpa);
+			max = Math.max(max, gpa);
+		}
+	}
+	
+	/**
+	 * Adds a GPA to the running mean and sum of squared deviations
+	 * 
+	 * @param gpa The GPA
+	 * @param count Number of GPAs once 'gpa' is added
+	 */
+	private void addDeviation(double gpa, int count) {
+		double delta = gpa - mean;
+		mean += delta / count;
+		squaredDeviations += delta * (gpa - mean);
+	}
+	
+	/**
+	 * Removes a GPA from the running mean and sum of squared deviations
+	 * 
+	 * @param gpa The GPA
+	 * @param count Number of GPAs once 'gpa' is removed
+	 */
+	private void removeDeviation(double gpa, int count) {
+		if(count == 0) {
+			mean = 0;
+			squaredDeviations = 0;
+			return;
+		}
+		double delta = gpa - mean;
+		mean -= delta / count;
+		squaredDeviations -= delta * (gpa - mean);
+	}
+	
+	/**
+	 * Recomputes every statistic from the GPAs, with one loop over the primitive array
+	 */
+	private void recomputeStatistics() {
+		double sum = 0;
+		mean = 0;
+		squaredDeviations = 0;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for(int i = 0; i < size; i++) {
+			double gpa = gpas[i];
+			sum += gpa;
+			addDeviation(gpa, i + 1);
+			min = Math.min(min, gpa);
+			max = Math.max(max, gpa);
+		}
+		this.sum = sum;
+		this.min = min;
+		this.max = max;
+		extremesValid = true;
+	}
+	
+	private void recomputeExtremes() {
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+		for(int i = 0; i < size; i++) {
+			min = Math.min(min, gpas[i]);
+			max = Math.max(max, gpas[i]);
+		}
+		extremesValid = true;
+	}
+	
+	/**
+	 * @param studentId Identifier of the student
+	 * @return the position of the student's grade, -1 when not found
+	 */
+	private int position(int studentId) {
+		int mask = table.length - 1;
+		for(int slot = slot(studentId, mask); table[slot] != 0; slot = (slot + 1) & mask) {
+			if(studentIds[table[slot] - 1] == studentId) return table[slot] - 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds the grade at 'position' to the table
+	 *
+	 * @param position Position of the grade
+	 */
+	private void index(int position) {
+		int mask = table.length - 1;
+		int slot = slot(studentIds[position], mask);
+		while(table[slot] != 0) slot = (slot + 1) & mask;
+		table[slot] = position + 1;
+	}
+
+	/**
+	 * Doubles the capacity, the table is kept at twice the capacity (load factor of 0.5 at most)
+	 */
+	private void grow() {
+		studentIds = Arrays.copyOf(studentIds, studentIds.length << 1);
+		gpas = Arrays.copyOf(gpas, gpas.length << 1);
+		table = new int[studentIds.length << 1];
+		for(int i = 0; i < size; i++) index(i);
+	}
+
+	/**
+	 * @param studentId Identifier of the student
+	 * @param mask Mask applied to slots
+	 * @return the home slot of 'studentId'
+	 */
+	private static int slot(int studentId, int mask) {
+		int hash = studentId * 0x9E3779B9; //Spreads sequential identifiers across the table
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+}
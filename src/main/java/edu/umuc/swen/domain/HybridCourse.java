@@ -1,7 +1,11 @@
 package edu.umuc.swen.domain;
 
+import static edu.umuc.swen.domain.util.StringPool.intern;
+
 import java.util.Date;
-import static edu.umuc.swen.domain.util.ParsingUtil.getPropertyValue;
+
+import edu.umuc.swen.domain.util.TagHandler;
+import edu.umuc.swen.domain.util.TagWriter;
 
 /**
  * Domain class modeling a hybrid course
@@ -21,17 +25,26 @@ public class HybridCourse extends Course {
 	 */
 	private Location classroomLocation;
 
+	/**
+	 * Creates an instance of HybridCourse using its string representation
+	 * 
+	 * @param line string to parse hybrid course data from
+	 */
 	public HybridCourse(String line) {
-		super(line);
-		this.url = getPropertyValue(line, "url");
-		this.classroomLocation = new Location(getPropertyValue(line, "classroomlocation"));
+		this(line, new Reader());
+	}
+	
+	private HybridCourse(String line, Reader reader) {
+		super(line, reader);
+		this.url = intern(reader.url);
+		this.classroomLocation = (reader.classroomLocation != null) ? Location.canonical(new Location(reader.classroomLocation)) : null;
 	}
 	
 	public HybridCourse(int id, String name, Date startDate, Date endDate, String meetingDays,
 			String meetingTimes, String termCode, String url, Location classroomLocation) {
 		super(id,name,startDate,endDate,meetingDays,meetingTimes,termCode);
-		this.url = url;
-		this.classroomLocation = classroomLocation;
+		this.url = intern(url);
+		this.classroomLocation = Location.canonical(classroomLocation);
 	}
 	
 	/* (non-Javadoc)
@@ -73,21 +86,42 @@ public class HybridCourse extends Course {
 	 * @param classroomLocation the classroomLocation to set
 	 */
 	public void setClassroomLocation(Location classroomLocation) {
-		this.classroomLocation = classroomLocation;
+		this.classroomLocation = Location.canonical(classroomLocation);
 	}
 	
-	public String toString() {
-		return new StringBuilder()
-				.append("<hybridcourse>\n")
-				.append(super.toString())
-				.append("<url>")
-				.append(url)
-				.append("</url>\n")
-				.append("<classroomlocation>\n")
-				.append(classroomLocation)
-				.append("\n</classroomlocation>\n")
-				.append("</hybridcourse>")
-				.toString();
+	/* (non-Javadoc)
+	 * @see edu.umuc.swen.domain.Course#write(edu.umuc.swen.domain.util.TagWriter)
+	 */
+	public void write(TagWriter out) {
+		out.append("<hybridcourse>\n");
+		super.write(out);
+		out.value("url", url)
+			.append("\n")
+			.append("<classroomlocation>\n");
+		classroomLocation.write(out);
+		out.append("\n</classroomlocation>\n")
+			.append("</hybridcourse>");
+	}
+	
+	/**
+	 * Collects the hybrid course specific data (url and classroom location)
+	 */
+	private static class Reader implements TagHandler {
+		
+		private String url;
+		private Location.Reader classroomLocation;
+		
+		public TagHandler start(String tag) {
+			if("classroomlocation".equals(tag)) {
+				classroomLocation = new Location.Reader();
+				return classroomLocation;
+			}
+			return null;
+		}
+		
+		public void value(String tag, String value) {
+			if("url".equals(tag)) url = value;
+		}
 	}
 
-}
+}
\ No newline at end of file
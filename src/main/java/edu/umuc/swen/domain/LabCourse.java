@@ -1,13 +1,9 @@
 package edu.umuc.swen.domain;
 
 import java.util.Date;
-import java.util.List;
 
-import edu.umuc.swen.error.InvalidStudentOperationException;
-
-import static edu.umuc.swen.domain.util.FileUtil.loadFromFile;
-import static edu.umuc.swen.domain.util.ParsingUtil.format;
-import static edu.umuc.swen.domain.util.ParsingUtil.getPropertyValue;
+import edu.umuc.swen.domain.util.TagHandler;
+import edu.umuc.swen.domain.util.TagWriter;
 
 /**
  * Domain class modeling a lab course
@@ -38,53 +34,22 @@ public class LabCourse extends Course {
 	 * @param line string from which lab course data is parsed from
 	 */
 	public LabCourse(String line) {
-		super(line);
-		this.classroomLocation = new Location(getPropertyValue(line, "classroomlocation"));
-		this.labRoomLocation = new Location(getPropertyValue(line, "labroomlocation"));
+		this(line, new Reader());
+	}
+	
+	private LabCourse(String line, Reader reader) {
+		super(line, reader);
+		this.classroomLocation = (reader.classroomLocation != null) ? Location.canonical(new Location(reader.classroomLocation)) : null;
+		this.labRoomLocation = (reader.labRoomLocation != null) ? Location.canonical(new Location(reader.labRoomLocation)) : null;
 	}
 	
 	public LabCourse(int id, String name, Date startDate, Date endDate, String meetingDays,
 			String meetingTimes, String termCode, Location classroomLocation, Location labRoomLocation) {
 		super(id,name,startDate,endDate,meetingDays,meetingTimes,termCode);
-		this.classroomLocation = classroomLocation;
-		this.labRoomLocation = labRoomLocation;
-	}
-	
-	/* (non-Javadoc)
-	 * @see edu.umuc.swen.domain.Course#addStudent(edu.umuc.swen.domain.Student)
-	 */
-	public void addStudent(Student student) {
-		if(hasEnded()) 
-			throw new InvalidStudentOperationException(
-					String.format("Unable to add students to this course, it has already ended on %s", format(endDate)));
-		
-		if(isCourseFull())
-			throw new InvalidStudentOperationException(
-					String.format("Unable to add students to this course, the maximum number of students (10) has been reached", format(endDate)));
-		
-		students.add(student);
+		this.classroomLocation = Location.canonical(classroomLocation);
+		this.labRoomLocation = Location.canonical(labRoomLocation);
 	}
 	
-	/* (non-Javadoc)
-	 * @see edu.umuc.swen.domain.Course#loadStudents(java.lang.String)
-	 */
-	public void loadStudents(String fileName) {
-		if(hasEnded()) 
-			throw new InvalidStudentOperationException(
-					String.format("Unable to add students to this course, it has already ended on %s", format(endDate)));
-		
-		if(isCourseFull())
-			throw new InvalidStudentOperationException(
-					String.format("Unable to add students to this course, the maximum number of students (20) has been reached", format(endDate)));
-		
-		String studentLines = getPropertyValue(loadFromFile(fileName), "students");
-		List<Student> laodedStudents = parseStudents(studentLines);
-		if(laodedStudents.size() + students.size() > MAX_NUMBER_OF_STUDENTS) {
-			throw new InvalidStudentOperationException("Unable to add students to this course, the maximum number of students (20) has been reached");
-		}
-		students.addAll(laodedStudents);
-	}
-
 	/**
 	 * @return the classroomLocation
 	 */
@@ -96,7 +61,7 @@ public class LabCourse extends Course {
 	 * @param classroomLocation the classroomLocation to set
 	 */
 	public void setClassroomLocation(Location classroomLocation) {
-		this.classroomLocation = classroomLocation;
+		this.classroomLocation = Location.canonical(classroomLocation);
 	}
 
 	/**
@@ -110,7 +75,7 @@ public class LabCourse extends Course {
 	 * @param labRoomLocation the labRoomLocation to set
 	 */
 	public void setLabRoomLocation(Location labRoomLocation) {
-		this.labRoomLocation = labRoomLocation;
+		this.labRoomLocation = Location.canonical(labRoomLocation);
 	}
 	
 	/* (non-Javadoc)
@@ -127,18 +92,19 @@ public class LabCourse extends Course {
 				.toString();
 	}
 	
-	public String toString() {
-		return new StringBuilder()
-				.append("<labcourse>\n")
-				.append(super.toString())
-				.append("<classroomlocation>\n")
-				.append(classroomLocation)
-				.append("\n</classroomlocation>\n")
-				.append("<labroomlocation>\n")
-				.append(labRoomLocation)
-				.append("\n</labroomlocation>\n")
-				.append("</labcourse>")
-				.toString();
+	/* (non-Javadoc)
+	 * @see edu.umuc.swen.domain.Course#write(edu.umuc.swen.domain.util.TagWriter)
+	 */
+	public void write(TagWriter out) {
+		out.append("<labcourse>\n");
+		super.write(out);
+		out.append("<classroomlocation>\n");
+		classroomLocation.write(out);
+		out.append("\n</classroomlocation>\n")
+			.append("<labroomlocation>\n");
+		labRoomLocation.write(out);
+		out.append("\n</labroomlocation>\n")
+			.append("</labcourse>");
 	}
 	
 	/**
@@ -147,7 +113,31 @@ public class LabCourse extends Course {
 	 * @return indicator
 	 */
 	public boolean isCourseFull() {
-		return students.size() == MAX_NUMBER_OF_STUDENTS;
+		return super.isCourseFull();
+	}
+	
+	/* (non-Javadoc)
+	 * @see edu.umuc.swen.domain.Course#getCapacity()
+	 */
+	protected int getCapacity() {
+		return MAX_NUMBER_OF_STUDENTS;
+	}
+	
+	/**
+	 * Collects the lab course specific data (classroom and lab locations)
+	 */
+	private static class Reader implements TagHandler {
+		
+		private Location.Reader classroomLocation;
+		private Location.Reader labRoomLocation;
+		
+		public TagHandler start(String tag) {
+			switch (tag) {
+			case "classroomlocation": return classroomLocation = new Location.Reader();
+			case "labroomlocation": return labRoomLocation = new Location.Reader();
+			default: return null;
+			}
+		}
 	}
 
-}
+}
\ No newline at end of file
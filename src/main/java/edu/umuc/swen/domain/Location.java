@@ -1,40 +1,66 @@
 package edu.umuc.swen.domain;
 
-import static edu.umuc.swen.domain.util.ParsingUtil.getPropertyValue;
+import static edu.umuc.swen.domain.util.StringPool.intern;
+import static edu.umuc.swen.domain.util.TagTokenizer.tokenize;
+
+import java.util.Objects;
+
+import edu.umuc.swen.domain.util.TagHandler;
+import edu.umuc.swen.domain.util.TagWriter;
+import edu.umuc.swen.domain.util.WeakInterner;
 
 /**
- * Domain class modeling a location
+ * Domain class modeling a location. Locations are immutable, equal locations can be shared
+ * by any number of courses (see {@link #canonical(Location)}).
  * 
  * @author ezerbo
  *
  */
-public class Location {
+public final class Location {
+	
+	/**
+	 * Canonical instances of the locations in use
+	 */
+	private final static WeakInterner<Location> LOCATIONS = new WeakInterner<>(1 << 10);
 
 	/**
 	 * The room number
 	 */
-	private String roomNumber;
+	private final String roomNumber;
 	
 	/**
 	 * The building number
 	 */
-	private String buildingName;
+	private final String buildingName;
 	
 	/**
 	 * The address of the location
 	 */
-	private Address address;
+	private final Address address;
 	
+	/**
+	 * Creates an instance of Location using its string representation
+	 * 
+	 * @param line String to parse location data from
+	 */
 	public Location(String line) {
-		this.roomNumber = getPropertyValue(line, "roomnumber");
-		this.buildingName = getPropertyValue(line, "buildingname");
-		this.address = new Address(getPropertyValue(line, "address"));
+		this(tokenize(line, new Reader()));
+	}
+	
+	/**
+	 * Creates an instance of Location using the values collected by a reader
+	 * 
+	 * @param reader Reader holding location data
+	 */
+	Location(Reader reader) {
+		this(reader.roomNumber, reader.buildingName,
+				(reader.address != null) ? new Address(reader.address) : null);
 	}
 	
 	public Location(String roomNumber, String buildingName, Address address) {
-		this.roomNumber = roomNumber;
-		this.buildingName = buildingName;
-		this.address = address;
+		this.roomNumber = intern(roomNumber);
+		this.buildingName = intern(buildingName);
+		this.address = Address.canonical(address);
 	}
 	
 	/**
@@ -44,13 +70,6 @@ public class Location {
 		return roomNumber;
 	}
 
-	/**
-	 * @param roomNumber the roomNumber to set
-	 */
-	public void setRoomNumber(String roomNumber) {
-		this.roomNumber = roomNumber;
-	}
-
 	/**
 	 * @return the buildingName
 	 */
@@ -58,13 +77,6 @@ public class Location {
 		return buildingName;
 	}
 
-	/**
-	 * @param buildingName the buildingName to set
-	 */
-	public void setBuildingName(String buildingName) {
-		this.buildingName = buildingName;
-	}
-
 	/**
 	 * @return the address
 	 */
@@ -73,12 +85,31 @@ public class Location {
 	}
 
 	/**
-	 * @param address the address to set
+	 * Returns the shared instance equal to a location, so that courses meeting at the same location hold a single copy of it
+	 * 
+	 * @param location Location to share, may be null
+	 * @return a location equal to 'location'
 	 */
-	public void setAddress(Address address) {
-		this.address = address;
+	public static Location canonical(Location location) {
+		return LOCATIONS.intern(location);
 	}
-
+	
+	@Override
+	public boolean equals(Object other) {
+		if(this == other) return true;
+		if(!(other instanceof Location)) return false;
+		Location location = (Location) other;
+		return Objects.equals(roomNumber, location.roomNumber) && Objects.equals(buildingName, location.buildingName)
+				&& Objects.equals(address, location.address);
+	}
+	
+	@Override
+	public int hashCode() {
+		int hash = Objects.hashCode(roomNumber);
+		hash = 31 * hash + Objects.hashCode(buildingName);
+		return 31 * hash + Objects.hashCode(address);
+	}
+	
 	/**
 	 * Formats a location (example: 1019 5E 221-B Baker Street London UK 188000)
 	 * 
@@ -92,17 +123,46 @@ public class Location {
 				.toString();
 	}
 	
+	/**
+	 * Writes the string representation of this location
+	 * 
+	 * @param out Writer to write the location to
+	 */
+	public void write(TagWriter out) {
+		out.append("<location>")
+			.value("roomnumber", roomNumber)
+			.value("buildingname", buildingName);
+		address.write(out);
+		out.append("</location>");
+	}
+	
 	public String toString() {
-		return new StringBuilder()
-				.append("<location>")
-				.append("<roomnumber>")
-				.append(roomNumber)
-				.append("</roomnumber>")
-				.append("<buildingname>")
-				.append(buildingName)
-				.append("</buildingname>")
-				.append(address)
-				.append("</location>")
-				.toString();
+		return TagWriter.render(this::write);
+	}
+	
+	/**
+	 * Collects location data from the events of a {@link edu.umuc.swen.domain.util.TagTokenizer}
+	 */
+	static class Reader implements TagHandler {
+		
+		private String roomNumber;
+		private String buildingName;
+		private Address.Reader address;
+		
+		public TagHandler start(String tag) {
+			if("address".equals(tag)) {
+				address = new Address.Reader();
+				return address;
+			}
+			return null;
+		}
+		
+		public void value(String tag, String value) {
+			switch (tag) {
+			case "roomnumber": roomNumber = value; break;
+			case "buildingname": buildingName = value; break;
+			default: break;
+			}
+		}
 	}
-}
+}
\ No newline at end of file
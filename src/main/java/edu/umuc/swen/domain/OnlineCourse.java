@@ -1,7 +1,11 @@
 package edu.umuc.swen.domain;
 
+import static edu.umuc.swen.domain.util.StringPool.intern;
+
 import java.util.Date;
-import static edu.umuc.swen.domain.util.ParsingUtil.getPropertyValue;
+
+import edu.umuc.swen.domain.util.TagHandler;
+import edu.umuc.swen.domain.util.TagWriter;
 
 /**
  * Domain class modeling an online course
@@ -22,14 +26,18 @@ public class OnlineCourse extends Course {
 	 * @param line string to parse online course data from
 	 */
 	public OnlineCourse(String line) {
-		super(line);
-		this.url = getPropertyValue(line, "url");
+		this(line, new Reader());
+	}
+	
+	private OnlineCourse(String line, Reader reader) {
+		super(line, reader);
+		this.url = intern(reader.url);
 	}
 	
 	public OnlineCourse(int id, String url, String name, Date startDate,
 			Date endDate, String meetingDays, String termCode, String meetingTimes) {
 		super(id,name,startDate,endDate,meetingDays,meetingTimes,termCode);
-		this.url = url;
+		this.url = intern(url);
 	}
 	
 	public String generateSchedule() {
@@ -54,15 +62,27 @@ public class OnlineCourse extends Course {
 		this.url = url;
 	}
 	
-	public String toString() {
-		return new StringBuilder()
-				.append("<onlinecourse>\n")
-				.append(super.toString())
-				.append("<url>")
-				.append(url)
-				.append("</url>\n")
-				.append("</onlinecourse>")
-				.toString();
+	/* (non-Javadoc)
+	 * @see edu.umuc.swen.domain.Course#write(edu.umuc.swen.domain.util.TagWriter)
+	 */
+	public void write(TagWriter out) {
+		out.append("<onlinecourse>\n");
+		super.write(out);
+		out.value("url", url)
+			.append("\n")
+			.append("</onlinecourse>");
+	}
+	
+	/**
+	 * Collects the online course specific data (url)
+	 */
+	private static class Reader implements TagHandler {
+		
+		private String url;
+		
+		public void value(String tag, String value) {
+			if("url".equals(tag)) url = value;
+		}
 	}
 
-}
+}
\ No newline at end of file
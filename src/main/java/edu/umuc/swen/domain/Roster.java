@@ -0,0 +1,242 @@
+package edu.umuc.swen.domain;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.umuc.swen.domain.util.IntObjectMap;
+
+/**
+ * List of the students of a course, kept in insertion order and indexed by student identifier.
+ * Students are stored in an array, removed students leave a hole that is compacted away later,
+ * so that membership tests and removals by identifier take constant time.
+ * The same student identifier may appear more than once.
+ *
+ * @author ezerbo
+ *
+ */
+class Roster extends AbstractList<Student> {
+
+	/**
+	 * Initial length of the entry array
+	 */
+	private final static int INITIAL_CAPACITY = 8;
+
+	/**
+	 * Entries in insertion order, a null entry is a hole left by a removal
+	 */
+	private Entry[] entries = new Entry[INITIAL_CAPACITY];
+
+	/**
+	 * First entry of each student identifier, entries sharing an identifier are chained
+	 */
+	private IntObjectMap<Entry> index = new IntObjectMap<>();
+
+	/**
+	 * Number of slots used in 'entries', holes included
+	 */
+	private int end;
+
+	/**
+	 * Number of students
+	 */
+	private int size;
+	
+	/**
+	 * Number of compactions, slots held by iterators are out of date when it changes
+	 */
+	private int compactions;
+
+	Roster() {
+	}
+
+	/**
+	 * @param students Students to add to the roster
+	 */
+	Roster(Collection<Student> students) {
+		addAll(students);
+	}
+
+	/**
+	 * Test whether a student is in this roster
+	 *
+	 * @param studentId Identifier of the student
+	 * @return indicator
+	 */
+	boolean containsId(int studentId) {
+		return index.containsKey(studentId);
+	}
+
+	/**
+	 * Removes every student having 'studentId' as identifier
+	 *
+	 * @param studentId Identifier of the student
+	 * @return the number of students removed
+	 */
+	int removeId(int studentId) {
+		int removed = 0;
+		for(Entry entry = index.remove(studentId); entry != null; entry = entry.next) {
+			entries[entry.slot] = null;
+			removed++;
+		}
+		size -= removed;
+		modCount++;
+		if(end - size > size && end > INITIAL_CAPACITY) compact(); //More holes than students
+		return removed;
+	}
+
+	public boolean add(Student student) {
+		if(end == entries.length) {
+			if(end - size > (end >> 2)) compact();
+			else entries = Arrays.copyOf(entries, end << 1);
+		}
+		Entry entry = new Entry(student, end);
+		Entry first = index.get(student.getId());
+		if(first == null) {
+			index.put(student.getId(), entry);
+		} else {
+			while(first.next != null) first = first.next;
+			first.next = entry;
+		}
+		entries[end++] = entry;
+		size++;
+		modCount++;
+		return true;
+	}
+
+	public Student get(int position) {
+		if(position < 0 || position >= size) throw new IndexOutOfBoundsException(String.format("Position: %s, Size: %s", position, size));
+		if(end != size) compact();
+		return entries[position].student;
+	}
+
+	public Student remove(int position) {
+		Student student = get(position);
+		unlink(position);
+		modCount++;
+		return student;
+	}
+
+	public void clear() {
+		Arrays.fill(entries, 0, end, null);
+		index.clear();
+		end = 0;
+		size = 0;
+		modCount++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public Iterator<Student> iterator() {
+		return new Iterator<Student>() {
+
+			private int position; //Position of the next student
+			private int slot = nextSlot(0);
+			private int lastSlot = -1;
+			private int expectedModCount = modCount;
+			private int expectedCompactions = compactions;
+
+			public boolean hasNext() {
+				return position < size;
+			}
+
+			public Student next() {
+				if(modCount != expectedModCount) throw new ConcurrentModificationException();
+				if(position >= size) throw new NoSuchElementException();
+				if(compactions != expectedCompactions) { //No holes are left, slots and positions are the same
+					slot = position;
+					expectedCompactions = compactions;
+				}
+				lastSlot = slot;
+				slot = nextSlot(slot + 1);
+				position++;
+				return entries[lastSlot].student;
+			}
+
+			public void remove() {
+				if(lastSlot == -1) throw new IllegalStateException();
+				if(modCount != expectedModCount) throw new ConcurrentModificationException();
+				if(compactions != expectedCompactions) {
+					lastSlot = position - 1;
+					slot = position;
+					expectedCompactions = compactions;
+				}
+				unlink(lastSlot);
+				position--;
+				lastSlot = -1;
+				expectedModCount = ++modCount;
+			}
+		};
+	}
+
+	/**
+	 * Removes the entry of a slot from the index and leaves a hole in its place
+	 * 
+	 * @param slot Slot of the entry
+	 */
+	private void unlink(int slot) {
+		Entry entry = entries[slot];
+		int studentId = entry.student.getId();
+		Entry first = index.get(studentId);
+		if(first == entry) {
+			if(entry.next != null) index.put(studentId, entry.next);
+			else index.remove(studentId);
+		} else {
+			while(first.next != entry) first = first.next;
+			first.next = entry.next;
+		}
+		entries[slot] = null;
+		size--;
+	}
+	
+	/**
+	 * @param from Slot to start from
+	 * @return the first slot holding a student, starting at 'from'
+	 */
+	private int nextSlot(int from) {
+		while(from < end && entries[from] == null) from++;
+		return from;
+	}
+
+	/**
+	 * Moves the students to the front of the array, removing holes, insertion order is kept.
+	 * Positions do not change, iterators in progress look up their slot again.
+	 */
+	private void compact() {
+		int slot = 0;
+		for(int i = 0; i < end; i++) {
+			Entry entry = entries[i];
+			if(entry == null) continue;
+			entry.slot = slot;
+			entries[slot++] = entry;
+		}
+		Arrays.fill(entries, slot, end, null);
+		end = slot;
+		compactions++;
+	}
+
+	/**
+	 * A student and its slot in the array
+	 */
+	private static class Entry {
+
+		private final Student student;
+		private int slot;
+
+		/**
+		 * Next entry sharing the same student identifier
+		 */
+		private Entry next;
+
+		private Entry(Student student, int slot) {
+			this.student = student;
+			this.slot = slot;
+		}
+	}
+
+}
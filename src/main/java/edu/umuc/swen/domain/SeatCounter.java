@@ -0,0 +1,94 @@
+package edu.umuc.swen.domain;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Number of seats taken in a course, out of a fixed capacity.
+ * Seats are reserved and released with compare-and-set, without locking:
+ * a course is never overfilled and requests made to a full course are rejected without waiting on its lock.
+ *
+ * @author ezerbo
+ *
+ */
+class SeatCounter {
+
+	private final int capacity;
+
+	private final AtomicInteger taken = new AtomicInteger();
+
+	/**
+	 * @param capacity Number of seats
+	 */
+	SeatCounter(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Reserves seats, either all of them or none
+	 *
+	 * @param seats Number of seats to reserve
+	 * @return false when fewer seats are left
+	 */
+	boolean reserve(int seats) {
+		while(true) {
+			int current = taken.get();
+			if(current + seats > capacity) return false;
+			if(taken.compareAndSet(current, current + seats)) return true;
+		}
+	}
+
+	/**
+	 * Reserves as many seats as are left, up to 'seats'
+	 *
+	 * @param seats Number of seats wanted
+	 * @return the number of seats reserved
+	 */
+	int reserveUpTo(int seats) {
+		while(true) {
+			int current = taken.get();
+			int reserved = Math.min(seats, capacity - current);
+			if(reserved <= 0) return 0;
+			if(taken.compareAndSet(current, current + reserved)) return reserved;
+		}
+	}
+
+	/**
+	 * Releases seats reserved earlier
+	 *
+	 * @param seats Number of seats to release
+	 */
+	void release(int seats) {
+		taken.addAndGet(-seats);
+	}
+
+	/**
+	 * Sets the number of seats taken, used when the students of a course are restored without being checked
+	 *
+	 * @param seats Number of seats taken, may exceed the capacity
+	 */
+	void reset(int seats) {
+		taken.set(seats);
+	}
+
+	/**
+	 * @return indicator
+	 */
+	boolean isFull() {
+		return taken.get() >= capacity;
+	}
+
+	/**
+	 * @return the number of seats taken
+	 */
+	int taken() {
+		return taken.get();
+	}
+
+	/**
+	 * @return the number of seats
+	 */
+	int getCapacity() {
+		return capacity;
+	}
+
+}
@@ -1,9 +1,13 @@
 package edu.umuc.swen.domain;
 
-import static edu.umuc.swen.domain.util.ParsingUtil.getPropertyValue;
+import static edu.umuc.swen.domain.util.StringPool.intern;
+import static edu.umuc.swen.domain.util.TagTokenizer.tokenize;
 import static java.lang.Integer.parseInt;
 import static java.lang.Double.parseDouble;
 
+import edu.umuc.swen.domain.util.TagHandler;
+import edu.umuc.swen.domain.util.TagWriter;
+
 /**
  * Domain class modeling a student
  * 
@@ -48,22 +52,27 @@ public class Student {
 	 * @param line String to parse student data from
 	 */
 	public Student(String line) {
-		this.id = parseInt(getPropertyValue(line, "id"));
-		this.firstName = getPropertyValue(line, "firstname");
-		this.lastName = getPropertyValue(line, "lastname");
-		this.overallGpa = parseDouble(getPropertyValue(line, "overallgpa"));
-		this.emailAddress = getPropertyValue(line, "emailaddress");
-		this.mailingAddress = new Address(getPropertyValue(line, "mailingaddress"));
+		this(tokenize(line, new Reader()));
+	}
+	
+	/**
+	 * Creates an instance of Student using the values collected by a reader
+	 * 
+	 * @param reader Reader holding student data
+	 */
+	Student(Reader reader) {
+		this(parseInt(reader.id), reader.firstName, reader.lastName, parseDouble(reader.overallGpa),
+				reader.emailAddress, (reader.mailingAddress != null) ? new Address(reader.mailingAddress) : null);
 	}
 	
 	public Student(int id, String firstName, String lastName,
 			double overallGpa, String emailAddress, Address mailingAddress) {
 		this.id = id;
-		this.firstName = firstName;
-		this.lastName = lastName;
+		this.firstName = intern(firstName);
+		this.lastName = intern(lastName);
 		this.overallGpa = overallGpa;
-		this.emailAddress = emailAddress;
-		this.mailingAddress = mailingAddress;
+		this.emailAddress = emailAddress; //Unique to each student, not pooled
+		this.mailingAddress = Address.canonical(mailingAddress);
 	}
 
 	/**
@@ -103,34 +112,63 @@ public class Student {
 	}
 
 	/**
-	 * @return the mailingAddress
+	 * @return the mailingAddress, shared with the students living at the same address since addresses cannot be changed
 	 */
 	public Address getMailingAddress() {
-		return mailingAddress.clone();
+		return mailingAddress;
 	}
 
+	/**
+	 * Writes the string representation of this student
+	 * 
+	 * @param out Writer to write the student to
+	 */
+	public void write(TagWriter out) {
+		out.append("<student>")
+			.value("id", id)
+			.value("firstname", firstName)
+			.value("lastname", lastName)
+			.value("overallgpa", overallGpa)
+			.value("emailaddress", emailAddress)
+			.append("<mailingaddress>");
+		mailingAddress.write(out);
+		out.append("</mailingaddress>")
+			.append("</student>");
+	}
+	
 	public String toString() {
-		return new StringBuilder()
-				.append("<student>")
-				.append("<id>")
-				.append(id)
-				.append("</id>")
-				.append("<firstname>")
-				.append(firstName)
-				.append("</firstname>")
-				.append("<lastname>")
-				.append(lastName)
-				.append("</lastname>")
-				.append("<overallgpa>")
-				.append(overallGpa)
-				.append("</overallgpa>")
-				.append("<emailaddress>")
-				.append(emailAddress)
-				.append("</emailaddress>")
-				.append("<mailingaddress>")
-				.append(mailingAddress)
-				.append("</mailingaddress>")
-				.append("</student>")
-				.toString();
+		return TagWriter.render(this::write);
+	}
+	
+	/**
+	 * Collects student data from the events of a {@link edu.umuc.swen.domain.util.TagTokenizer}
+	 */
+	static class Reader implements TagHandler {
+		
+		private String id;
+		private String firstName;
+		private String lastName;
+		private String overallGpa;
+		private String emailAddress;
+		private Address.Reader mailingAddress;
+		
+		public TagHandler start(String tag) {
+			if("mailingaddress".equals(tag)) {
+				mailingAddress = new Address.Reader();
+				return mailingAddress;
+			}
+			return null;
+		}
+		
+		public void value(String tag, String value) {
+			switch (tag) {
+			case "id": id = value; break;
+			case "firstname": firstName = value; break;
+			case "lastname": lastName = value; break;
+			case "overallgpa": overallGpa = value; break;
+			case "emailaddress": emailAddress = value; break;
+			default: break;
+			}
+		}
 	}
 }
\ No newline at end of file
@@ -1,19 +1,51 @@
 package edu.umuc.swen.domain;
 
 import static edu.umuc.swen.domain.util.FileUtil.loadFromFile;
+import static edu.umuc.swen.domain.util.FileUtil.mapBytesFromFile;
+import static edu.umuc.swen.domain.util.FileUtil.mapFromFile;
 import static edu.umuc.swen.domain.util.FileUtil.writeToFile;
+import static edu.umuc.swen.domain.util.FileUtil.writeToFileAtomically;
 import static edu.umuc.swen.domain.util.ParsingUtil.getPropertyValue;
+import static edu.umuc.swen.domain.util.ParsingUtil.indexOf;
 
-import java.util.LinkedList;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import edu.umuc.swen.domain.util.IntObjectMap;
+import edu.umuc.swen.domain.util.TagWriter;
 import edu.umuc.swen.error.CourseOutOfRangeException;
 import edu.umuc.swen.error.InvalidOperationException;
+import edu.umuc.swen.error.InvalidStudentOperationException;
+import edu.umuc.swen.metrics.Counter;
+import edu.umuc.swen.metrics.LatencyHistogram;
+import edu.umuc.swen.metrics.MetricsRegistry;
 
 /**
- * Domain class modeling a term
+ * Domain class modeling a term.
+ * <p>
+ * A term can be changed by several threads: courses are added and removed while holding the term's lock,
+ * each course is changed while holding its own lock so that changes to different courses run in parallel.
+ * A copy of the term as it is at a given time can be taken while changes go on (see {@link #startCapture()}).
+ * Course lookups do not lock, the index of the courses is updated in place by every change to the list of courses.
  * 
  * @author ezerbo
  *
@@ -24,6 +56,24 @@ public class Term {
 	 * Maximum number of courses that can be loaded into a term, set to 6
 	 */
 	private final static int MAX_NUMBER_OF_COURSE = 6; //06 Courses per term.
+	
+	/**
+	 * Returned by changeCourse when the course to change is not found, sequence numbers of records are positive
+	 */
+	private final static long COURSE_NOT_FOUND = -1;
+	
+	/**
+	 * Time taken and bytes read or written when loading and saving terms, in the text and snapshot formats
+	 */
+	private final static MetricsRegistry METRICS = MetricsRegistry.getDefault();
+	private final static LatencyHistogram PARSE = METRICS.histogram("term.parse");
+	private final static Counter PARSE_BYTES = METRICS.counter("term.parse.bytes");
+	private final static LatencyHistogram SAVE = METRICS.histogram("term.save");
+	private final static Counter SAVE_BYTES = METRICS.counter("term.save.bytes");
+	private final static LatencyHistogram LOAD_SNAPSHOT = METRICS.histogram("term.loadSnapshot");
+	private final static Counter LOAD_SNAPSHOT_BYTES = METRICS.counter("term.loadSnapshot.bytes");
+	private final static LatencyHistogram SAVE_SNAPSHOT = METRICS.histogram("term.saveSnapshot");
+	private final static Counter SAVE_SNAPSHOT_BYTES = METRICS.counter("term.saveSnapshot.bytes");
 
 	/**
 	 * Code of the term
@@ -31,9 +81,14 @@ public class Term {
 	private String termCode;
 	
 	/**
-	 * Course available in this term
+	 * Course available in this term, indexed by identifier
+	 */
+	private CourseList courses = new CourseList();
+	
+	/**
+	 * Copy of this term in progress, null when none
 	 */
-	private List<Course> courses = new LinkedList<>();
+	private volatile Capture capture;
 	
 	/**
 	 * Creates an instance of Term and loads data from a file
@@ -41,21 +96,116 @@ public class Term {
 	 * @param fileName File to parse term data from
 	 */
 	public Term(String fileName) {
-		String content = loadFromFile(fileName);
+		this(fileName, false);
+	}
+	
+	/**
+	 * Creates an instance of Term and loads data from a file.
+	 * Course boundaries are found first, then courses are parsed on the common ForkJoinPool when 'parallel' is set,
+	 * courses keep the order of the file either way.
+	 * 
+	 * @param fileName File to parse term data from
+	 * @param parallel Whether courses are parsed in parallel, worth it for files holding many courses
+	 */
+	public Term(String fileName, boolean parallel) {
+		long start = System.nanoTime();
+		CharSequence content = mapFromFile(fileName);
 		this.termCode = getPropertyValue(content, "termcode");
-		this.courses = parseCourses(getPropertyValue(content, "courses"));
+		this.courses.addAll(parseCourses(content, parallel));
+		PARSE.recordSince(start);
+		PARSE_BYTES.add(new File(fileName).length());
 	}
 	
 	public Term() {
 	}
 	
+	/**
+	 * Creates an instance of Term holding courses that are already built (from a snapshot for instance)
+	 * 
+	 * @param termCode Code of the term
+	 * @param courses Courses of the term
+	 */
+	Term(String termCode, List<Course> courses) {
+		this.termCode = termCode;
+		this.courses.addAll(courses);
+	}
+	
 	/**
 	 * Saves Term data to a file
 	 * 
 	 * @param fileName File to save term data to.
 	 */
 	public void saveToFile(String fileName) {
-		writeToFile(fileName, toString());
+		long start = System.nanoTime();
+		writeToFile(fileName, this::write);
+		SAVE.recordSince(start);
+		SAVE_BYTES.add(new File(fileName).length());
+	}
+	
+	/**
+	 * Saves Term data to a file, the file is either fully replaced or left untouched
+	 * when the save fails (the data is written to a temporary file that is renamed over 'fileName').
+	 * 
+	 * @param fileName File to save term data to.
+	 * @throws RuntimeException When term data cannot be saved
+	 */
+	public void saveToFileAtomically(String fileName) {
+		long start = System.nanoTime();
+		writeToFileAtomically(fileName, this::write);
+		SAVE.recordSince(start);
+		SAVE_BYTES.add(new File(fileName).length());
+	}
+	
+	/**
+	 * Loads a term from a file, either in the text format or in the binary snapshot format
+	 * 
+	 * @param fileName File to load term data from
+	 * @return term
+	 */
+	public static Term load(String fileName) {
+		long start = System.nanoTime();
+		ByteBuffer content = mapBytesFromFile(fileName);
+		if(content.remaining() >= 4 && content.getInt(0) == TermSnapshotCodec.MAGIC) return decodeSnapshot(content, start);
+		return new Term(fileName);
+	}
+	
+	/**
+	 * Saves term data to a file in the binary snapshot format (see {@link TermSnapshotCodec}), replacing the file atomically
+	 * 
+	 * @param fileName File to save term data to
+	 * @throws RuntimeException When term data cannot be saved
+	 */
+	public void saveSnapshot(String fileName) {
+		long start = System.nanoTime();
+		ByteBuffer snapshot = TermSnapshotCodec.encode(this);
+		writeToFileAtomically(fileName, snapshot);
+		SAVE_SNAPSHOT.recordSince(start);
+		SAVE_SNAPSHOT_BYTES.add(snapshot.remaining());
+	}
+	
+	/**
+	 * Loads a term from a file in the binary snapshot format
+	 * 
+	 * @param fileName File to load term data from
+	 * @return term
+	 * @throws RuntimeException When the file cannot be read or is not a term snapshot
+	 */
+	public static Term loadSnapshot(String fileName) {
+		long start = System.nanoTime();
+		return decodeSnapshot(mapBytesFromFile(fileName), start);
+	}
+	
+	/**
+	 * @param content Term data in the binary snapshot format
+	 * @param start Value of {@link System#nanoTime()} when loading started
+	 * @return term
+	 */
+	private static Term decodeSnapshot(ByteBuffer content, long start) {
+		int bytes = content.remaining();
+		Term term = TermSnapshotCodec.decode(content);
+		LOAD_SNAPSHOT.recordSince(start);
+		LOAD_SNAPSHOT_BYTES.add(bytes);
+		return term;
 	}
 	
 	/**
@@ -64,27 +214,173 @@ public class Term {
 	 * @throws CourseOutOfRangeException When the maximum number of courses is reached
 	 */
 	public void addCourse(Course course) throws InvalidOperationException, CourseOutOfRangeException {
+		addCourse(course, null);
+	}
+	
+	/**
+	 * Adds a course, the course is recorded in a journal once checked and before being added.
+	 * Changes to a course are recorded in the order they are made, whichever journal method is used
+	 * 
+	 * @param course The course to be added
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded
+	 * @throws InvalidOperationException When course has already stated or ended
+	 * @throws CourseOutOfRangeException When the maximum number of courses is reached
+	 * @throws RuntimeException When the change cannot be recorded, the course is not added then
+	 */
+	public synchronized long addCourse(Course course, TermJournal journal) throws InvalidOperationException, CourseOutOfRangeException {
 		if(course.hasStarted() || course.hasEnded())
 			throw new InvalidOperationException("Cannot add a course that has already started or ended.");
 		if(isTermFull())
 			throw new CourseOutOfRangeException("The maximum number of courses per term is 6.");
-		courses.add(course);
+		long sequence = (journal != null) ? journal.addCourse(course) : 0;
+		restoreCourse(course);
+		return sequence;
 	}
 	
 	/**
-	 * Removes a course from this term
+	 * Removes a course from this term, once the changes made to the course by other threads are complete
 	 * 
 	 * @param courseId Identifier of the course to remove
 	 */
 	public void removeCourse(int courseId) {
-		courses.stream()
-		.filter(c -> (c.getId() == courseId)).findAny()
-		.ifPresent(course -> {
+		removeCourse(courseId, null);
+	}
+	
+	/**
+	 * Removes a course from this term (see {@link #removeCourse(int)}), the change is recorded in a journal before being made
+	 * 
+	 * @param courseId Identifier of the course to remove
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded or when there is no such course
+	 * @throws RuntimeException When the change cannot be recorded, the course is not removed then
+	 */
+	public long removeCourse(int courseId, TermJournal journal) {
+		return orZero(changeCourse(courseId, course -> { //The course lock is always acquired before the term lock
 			if(course.hasStarted())
 				throw new InvalidOperationException(
 						String.format("Unable to delete course with id : '%s' because it has already started", courseId));
-			courses.remove(course);
-		});
+			synchronized (this) {
+				long sequence = (journal != null) ? journal.removeCourse(courseId) : 0;
+				unlinkCourse(course);
+				return sequence;
+			}
+		}));
+	}
+	
+	/**
+	 * Adds a course without checking its dates or the number of courses,
+	 * used to replay changes that were checked when they were first made
+	 * 
+	 * @param course Course to be added
+	 */
+	synchronized void restoreCourse(Course course) {
+		courses.add(course);
+	}
+	
+	/**
+	 * Removes a course without checking its dates, used to replay changes that were checked when they were first made
+	 * 
+	 * @param courseId Identifier of the course
+	 */
+	synchronized void restoreCourseRemoval(int courseId) {
+		Course course = findCourse(courseId);
+		if(Objects.nonNull(course)) unlinkCourse(course);
+	}
+	
+	/**
+	 * Must be called while holding the term lock
+	 * 
+	 * @param course Course to remove from the list and the index, another course may share its identifier
+	 */
+	private void unlinkCourse(Course course) {
+		courses.remove(course);
+	}
+	
+	/**
+	 * Runs a change on a course while holding the course's lock, no other change is made to the course meanwhile.
+	 * The change is not run when the course is removed from this term before its lock is acquired.
+	 * 
+	 * @param courseId Identifier of the course
+	 * @param change Change to make to the course
+	 * @return false when no course is found with 'courseId'
+	 */
+	public boolean modifyCourse(int courseId, Consumer<Course> change) {
+		return changeCourse(courseId, course -> {
+			change.accept(course);
+			return 0;
+		}) != COURSE_NOT_FOUND;
+	}
+	
+	/**
+	 * Runs a change on a course while holding the course's lock (see {@link #modifyCourse(int, Consumer)})
+	 * 
+	 * @param courseId Identifier of the course
+	 * @param change Change to make to the course, returns the sequence number of the record of the change
+	 * @return the value returned by 'change', {@link #COURSE_NOT_FOUND} when no course is found with 'courseId'
+	 */
+	private long changeCourse(int courseId, ToLongFunction<Course> change) {
+		while(true) {
+			Course course = findCourse(courseId);
+			if(Objects.isNull(course)) return COURSE_NOT_FOUND;
+			synchronized (course) {
+				if(findCourse(courseId) != course) continue; //Removed or replaced meanwhile
+				preserve(course);
+				return change.applyAsLong(course);
+			}
+		}
+	}
+	
+	/**
+	 * Starts copying this term as it is now, without holding back changes: from now on, each course is copied before its first change.
+	 * Must be called while no change to the term is in progress, the copy then matches the term between two changes.
+	 * 
+	 * @throws RuntimeException When a copy is already in progress
+	 */
+	public synchronized void startCapture() {
+		if(Objects.nonNull(capture)) throw new RuntimeException("A copy of the term is already in progress");
+		capture = new Capture(new ArrayList<>(courses));
+	}
+	
+	/**
+	 * Completes the copy started by {@link #startCapture()}, courses that were not changed since are copied now, one at a time
+	 * while holding their lock. Changes go on meanwhile.
+	 * 
+	 * @return the term as it was when the copy started
+	 * @throws RuntimeException When no copy is in progress
+	 */
+	public Term finishCapture() {
+		Capture capture = this.capture;
+		if(Objects.isNull(capture)) throw new RuntimeException("No copy of the term is in progress");
+		try {
+			List<Course> copies = new ArrayList<>(capture.courses.size());
+			for(Course course : capture.courses) {
+				synchronized (course) {
+					copies.add(capture.copyOf(course));
+				}
+			}
+			return new Term(termCode, copies);
+		} finally {
+			this.capture = null;
+		}
+	}
+	
+	/**
+	 * Copies a course before it is changed when a copy of the term is in progress, must be called while holding the course's lock
+	 * 
+	 * @param course Course about to be changed
+	 */
+	private void preserve(Course course) {
+		Capture capture = this.capture;
+		if(Objects.nonNull(capture)) capture.copyOf(course);
+	}
+	
+	/**
+	 * @param sequence Value returned by {@link #changeCourse(int, ToLongFunction)}
+	 * @return the sequence number of the record of the change, 0 when the course was not found
+	 */
+	private static long orZero(long sequence) {
+		return (sequence == COURSE_NOT_FOUND) ? 0 : sequence;
 	}
 	
 	/**
@@ -103,9 +399,7 @@ public class Term {
 	 * @return course schedule
 	 */
 	public String generateCourseSchedule(int courseId) {
-		return courses.stream()
-				.filter(c -> (c.getId() == courseId))
-				.findAny()
+		return Optional.ofNullable(findCourse(courseId))
 				.map(c -> c.generateSchedule())
 				.orElse(""); //An empty string is returned when course is not found
 	}
@@ -117,11 +411,107 @@ public class Term {
 	 * @param courseId Identifier of the course to add the student to.
 	 */
 	public void addStudentToCourse(Student student, int courseId) {
-		courses.stream()
-		.filter(c -> (c.getId() == courseId)).findAny()
-		.ifPresent(course -> {
-			course.addStudent(student);
+		addStudentToCourse(student, courseId, null);
+	}
+	
+	/**
+	 * Adds a student to a course, the student is recorded in a journal before being added.
+	 * A seat is reserved before the course's lock is acquired: requests made to a full course do not wait on the lock,
+	 * which is only held to add the student to the roster and record the change.
+	 * 
+	 * @param student Student to be added
+	 * @param courseId Identifier of the course to add the student to
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded or when there is no such course
+	 * @throws InvalidStudentOperationException When course has ended or is full
+	 * @throws RuntimeException When the change cannot be recorded, the student is not added then
+	 */
+	public long addStudentToCourse(Student student, int courseId, TermJournal journal) {
+		while(true) {
+			Course course = findCourse(courseId);
+			if(Objects.isNull(course)) return 0;
+			course.reserveSeat();
+			synchronized (course) {
+				if(findCourse(courseId) == course) {
+					preserve(course);
+					return course.addReservedStudent(student, journal);
+				}
+			}
+			course.releaseSeats(1); //Removed or replaced meanwhile
+		}
+	}
+	
+	/**
+	 * Adds many students to courses, enrollments are grouped by course and each group is added in one step
+	 * 
+	 * @param enrollments Students to add and the courses to add them to
+	 * @return the outcome of each enrollment, in the order of 'enrollments'
+	 */
+	public List<EnrollmentResult> addStudentsToCourses(List<Enrollment> enrollments) {
+		return addStudentsToCourses(enrollments, null);
+	}
+	
+	/**
+	 * Adds many students to courses, enrollments are grouped by course and each group is added in one step:
+	 * the course is found, its dates are checked and seats are reserved once per group.
+	 * When fewer seats are left than students in a group, the first students of the group are added.
+	 * Enrollments in missing courses fail, unlike {@link #addStudentToCourse(Student, int)}.
+	 * <p>
+	 * The students that have a seat are recorded in a journal as a single record, then added.
+	 * The caller makes sure no other change is recorded meanwhile, records of a course must follow the order of its changes.
+	 * 
+	 * @param enrollments Students to add and the courses to add them to
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the outcome of each enrollment, in the order of 'enrollments'
+	 * @throws RuntimeException When the change cannot be recorded, no student is added then
+	 */
+	public List<EnrollmentResult> addStudentsToCourses(List<Enrollment> enrollments, TermJournal journal) {
+		Map<Integer, List<Integer>> groups = new LinkedHashMap<>(); //Positions of the enrollments of each course
+		for(int i = 0; i < enrollments.size(); i++) {
+			groups.computeIfAbsent(enrollments.get(i).getCourseId(), courseId -> new ArrayList<>()).add(i);
+		}
+		EnrollmentResult[] results = new EnrollmentResult[enrollments.size()];
+		Map<Course, List<Student>> reserved = new LinkedHashMap<>(); //Students of each course that have a seat
+		List<Enrollment> added = new ArrayList<>();
+		groups.forEach((courseId, positions) -> {
+			List<Student> students = positions.stream()
+					.map(i -> enrollments.get(i).getStudent())
+					.collect(Collectors.toList());
+			Course course = findCourse(courseId);
+			int seats = 0;
+			RuntimeException error = null;
+			if(Objects.isNull(course)) {
+				error = new RuntimeException(String.format("No course found with id: %s", courseId));
+			} else {
+				try {
+					seats = course.reserveSeats(students.size());
+					if(seats < students.size()) error = course.courseFullError();
+				} catch (InvalidStudentOperationException e) {
+					error = e;
+				}
+			}
+			if(seats > 0) reserved.put(course, students.subList(0, seats));
+			for(int i = 0; i < positions.size(); i++) {
+				Enrollment enrollment = enrollments.get(positions.get(i));
+				if(i < seats) added.add(enrollment);
+				results[positions.get(i)] = (i < seats)
+						? EnrollmentResult.success(enrollment)
+						: EnrollmentResult.failure(enrollment, error);
+			}
 		});
+		try {
+			if(journal != null && !added.isEmpty()) journal.addStudentsToCourses(added);
+		} catch (RuntimeException e) {
+			reserved.forEach((course, students) -> course.releaseSeats(students.size()));
+			throw e;
+		}
+		reserved.forEach((course, students) -> {
+			synchronized (course) {
+				preserve(course);
+				course.addReservedStudents(students);
+			}
+		});
+		return Arrays.asList(results);
 	}
 	
 	/**
@@ -131,11 +521,20 @@ public class Term {
 	 * @param courseId Indentifier of the course
 	 */
 	public void removeStudentFromCourse(int studentId, int courseId) {
-		courses.stream()
-		.filter(c -> (c.getId() == courseId)).findAny()
-		.ifPresent(course -> {
-			course.removeStudent(studentId);
-		});
+		removeStudentFromCourse(studentId, courseId, null);
+	}
+	
+	/**
+	 * Removes a student from a course, the change is recorded in a journal before being made
+	 * 
+	 * @param studentId Identifier of the student
+	 * @param courseId Indentifier of the course
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded or when there is no such course
+	 * @throws RuntimeException When the change cannot be recorded, the student is not removed then
+	 */
+	public long removeStudentFromCourse(int studentId, int courseId, TermJournal journal) {
+		return orZero(changeCourse(courseId, course -> course.removeStudent(studentId, journal)));
 	}
 	
 	/**
@@ -145,14 +544,24 @@ public class Term {
 	 * @return averageGpa
 	 */
 	public double calculateCourseAverageGpa(int courseId) {
-		return courses.stream()
-				.filter(c -> (c.getId() == courseId))
-				.findAny()
+		return Optional.ofNullable(findCourse(courseId))
 				.map(c -> c.calculateAverageGpa())
 				.orElseThrow(() -> new RuntimeException(String.format("No course found with id : %s", courseId)));
 		//Cannot return 0 because it would be ambiguous. Is the course missing ? Or is it that no GPA data was added ?
 	}
 	
+	/**
+	 * Returns the distribution of the GPAs of a course
+	 * 
+	 * @param courseId Identifier  of the course
+	 * @return gpaStatistics
+	 */
+	public GpaStatistics getCourseGpaStatistics(int courseId) {
+		return Optional.ofNullable(findCourse(courseId))
+				.map(c -> c.getGpaStatistics())
+				.orElseThrow(() -> new RuntimeException(String.format("No course found with id : %s", courseId)));
+	}
+	
 	/**
 	 * Saves course schedule to a file.
 	 * 
@@ -168,13 +577,22 @@ public class Term {
 	 * @param fileName File to load the course from
 	 */
 	public void loadCourse(String fileName) {
+		loadCourse(fileName, null);
+	}
+	
+	/**
+	 * Loads a course into the term, the course is recorded in a journal before being added
+	 * 
+	 * @param fileName File to load the course from
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded
+	 * @throws RuntimeException When the change cannot be recorded, the course is not added then
+	 */
+	public long loadCourse(String fileName, TermJournal journal) {
 		if(isTermFull())
 			throw new CourseOutOfRangeException("The maximum number of courses per term is 6.");
 		String content = loadFromFile(fileName);
-		Course course = getCourseFromString(content);
-		if(course.hasStarted() || course.hasEnded())
-			throw new InvalidOperationException("Cannot add a course that has already started or ended.");
-		courses.add(course);
+		return addCourse(getCourseFromString(content), journal); //Checked again while holding the lock
 	}
 	
 	/**
@@ -183,7 +601,7 @@ public class Term {
 	 * @param courseLine Content to create a course from.
 	 * @return The new Course
 	 */
-	private Course getCourseFromString(String courseLine) {
+	static Course getCourseFromString(String courseLine) {
 		if(courseLine.startsWith("<onlinecourse>")) {
 			return new OnlineCourse(courseLine);
 		} else if (courseLine.startsWith("<hybridcourse>")) {
@@ -202,10 +620,51 @@ public class Term {
 	 * @param gpa New GPA
 	 */
 	public void changeStudentGpa(Integer studentId, int courseId, Double gpa) {
-		Course course = courses.stream()
-				.filter(c -> (c.getId() == courseId)).findAny()
-				.orElseThrow(() -> new RuntimeException(""));
-		course.changeStudentGpa(studentId, gpa);
+		changeStudentGpa(studentId, courseId, gpa, null);
+	}
+	
+	/**
+	 * Updates a student's GPA, the change is recorded in a journal before being made
+	 * 
+	 * @param studentId Identifier of student
+	 * @param courseId Identifier of the course
+	 * @param gpa New GPA
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded
+	 * @throws RuntimeException When the course is not found, the student is not in the course or the change cannot be recorded
+	 */
+	public long changeStudentGpa(Integer studentId, int courseId, Double gpa, TermJournal journal) {
+		long sequence = changeCourse(courseId, course -> course.changeStudentGpa(studentId, gpa, journal));
+		if(sequence == COURSE_NOT_FOUND) throw new RuntimeException("");
+		return sequence;
+	}
+	
+	/**
+	 * Updates the GPAs of many students of a course at once (see {@link Course#changeStudentGpas(int[], double[])})
+	 * 
+	 * @param courseId Identifier of the course
+	 * @param studentIds Identifiers of the students
+	 * @param gpas New GPAs, at the same position as their student identifier
+	 * @throws RuntimeException When the course is not found or a student is not in the course
+	 */
+	public void changeStudentGpas(int courseId, int[] studentIds, double[] gpas) {
+		changeStudentGpas(courseId, studentIds, gpas, null);
+	}
+	
+	/**
+	 * Updates the GPAs of many students of a course at once, the change is recorded in a journal before being made
+	 * 
+	 * @param courseId Identifier of the course
+	 * @param studentIds Identifiers of the students
+	 * @param gpas New GPAs, at the same position as their student identifier
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded
+	 * @throws RuntimeException When the course is not found, a student is not in the course or the change cannot be recorded
+	 */
+	public long changeStudentGpas(int courseId, int[] studentIds, double[] gpas, TermJournal journal) {
+		long sequence = changeCourse(courseId, course -> course.changeStudentGpas(studentIds, gpas, journal));
+		if(sequence == COURSE_NOT_FOUND) throw new RuntimeException(String.format("No course found with id: %s", courseId));
+		return sequence;
 	}
 	
 	/** 
@@ -218,7 +677,8 @@ public class Term {
 	}
 	
 	/**
-	 * Returns this term's courses
+	 * Returns this term's courses, iterating over them does not lock and sees the courses as they were when iteration started.
+	 * Courses added or removed through the list are indexed like those added or removed through the term.
 	 * 
 	 * @return courses
 	 */
@@ -227,6 +687,16 @@ public class Term {
 	}
 	
 	
+	/**
+	 * Finds a course in the index using its identifier
+	 * 
+	 * @param courseId Identifier of the course
+	 * @return the course, or null when not found
+	 */
+	Course findCourse(int courseId) {
+		return courses.find(courseId);
+	}
+	
 	/**
 	 * Test whether this term is full (if it contains 6 courses) 
 	 * 
@@ -237,47 +707,50 @@ public class Term {
 	}
 	
 	/**
-	 * Joins the string representation of the courses, delimited by the new lines
+	 * Parses courses for this term.
+	 * Courses are located between the &lt;courses&gt; and &lt;/courses&gt; tags, in any order.
 	 * 
-	 * @return String representation of all courses
+	 * @param content String representation of the term
+	 * @param parallel Whether courses are parsed in parallel
+	 * @return A list of courses, in the order of 'content'
+	 * @throws CourseOutOfRangeException When a minimum of one course is not found
 	 */
-	private String formatCourses() {
-		return courses.stream()
-				.map(course -> course.toString())
-				.collect(Collectors.joining("\n"));
+	private List<Course> parseCourses(CharSequence content, boolean parallel) throws CourseOutOfRangeException {
+		int[] boundaries = findCourseBoundaries(content);
+		IntStream positions = IntStream.range(0, boundaries.length / 2);
+		if(parallel) positions = positions.parallel();
+		return positions
+				.mapToObj(i -> getCourseFromString(content.subSequence(boundaries[2 * i], boundaries[2 * i + 1]).toString()))
+				.collect(Collectors.toList()); //Encounter order is kept by parallel streams
 	}
 	
 	/**
-	 * Parses courses for this term
+	 * Finds where each course starts and ends, without parsing courses.
+	 * A cursor is moved from one course to the next so that only the text of each course is copied later on.
 	 * 
-	 * @param courseLines String representation of courses
-	 * @return A list of courses
-	 * @throws CourseOutOfRangeException When a minimum of one course is not found
+	 * @param content Term data
+	 * @return start (inclusive) and end (exclusive) index of each course, one pair after the other
 	 */
-	private List<Course> parseCourses(String courseLines) throws CourseOutOfRangeException {
-		if(Objects.isNull(courseLines)) throw new CourseOutOfRangeException("A minimum of one course is required");
-		List<Course> courses = new LinkedList<>();
-		while(!(courseLines.isEmpty() || courseLines.equals("\n"))) {
-			int closingNodeIndex = 0;
-			String startingNode = courseLines.substring(1, courseLines.indexOf("\n", 1));
-			if("<hybridcourse>".equals(startingNode)) { 
-				closingNodeIndex = courseLines.indexOf("</hybridcourse>\n");
-				String courseLine = courseLines.substring(16, closingNodeIndex);
-				courses.add(new HybridCourse(courseLine));
-				courseLines = courseLines.substring(closingNodeIndex + 15);
-			} else if("<onlinecourse>".equals(startingNode)) {
-				closingNodeIndex = courseLines.indexOf("</onlinecourse>");
-				String courseLine = courseLines.substring(16, closingNodeIndex);
-				courses.add(new OnlineCourse(courseLine));
-				courseLines = courseLines.substring(closingNodeIndex + 15);
-			} else if ("<labcourse>".equals(startingNode)) {
-				closingNodeIndex = courseLines.indexOf("</labcourse>");
-				String courseLine = courseLines.substring(13, closingNodeIndex);
-				courses.add(new LabCourse(courseLine));
-				courseLines = courseLines.substring(closingNodeIndex + 12);
-			}
+	private static int[] findCourseBoundaries(CharSequence content) throws CourseOutOfRangeException {
+		int coursesStart = indexOf(content, "<courses>", 0);
+		int coursesEnd = indexOf(content, "</courses>", coursesStart);
+		if(coursesStart == -1 || coursesEnd == -1) throw new CourseOutOfRangeException("A minimum of one course is required");
+		int[] boundaries = new int[16];
+		int count = 0;
+		int cursor = indexOf(content, "<", coursesStart + "<courses>".length());
+		while(cursor != -1 && cursor < coursesEnd) {
+			int startingNodeEnd = indexOf(content, ">", cursor) + 1;
+			String closingNode = "</" + content.subSequence(cursor + 1, startingNodeEnd);
+			int closingNodeIndex = indexOf(content, closingNode, startingNodeEnd);
+			if(closingNodeIndex == -1 || closingNodeIndex > coursesEnd)
+				throw new RuntimeException(String.format("Missing '%s' for course starting at index %s", closingNode, cursor));
+			int courseEnd = closingNodeIndex + closingNode.length();
+			if(count == boundaries.length) boundaries = Arrays.copyOf(boundaries, count << 1);
+			boundaries[count++] = cursor;
+			boundaries[count++] = courseEnd;
+			cursor = indexOf(content, "<", courseEnd);
 		}
-		return courses;
+		return Arrays.copyOf(boundaries, count);
 	}
 	
 	/**
@@ -287,9 +760,7 @@ public class Term {
 	 * @return the course
 	 */
 	public Course getCourse(int courseId) {
-		return courses.stream()
-				.filter(c -> c.getId() == courseId)
-				.findFirst()
+		return Optional.ofNullable(findCourse(courseId))
 				.orElseThrow(() -> new RuntimeException(String.format("No course found with id: %s", courseId)));
 	}
 	
@@ -300,24 +771,238 @@ public class Term {
 	 * @param courseId Identifier of course to load students into
 	 */
 	public void loadStudentsIntoCourse(String fileName, int courseId) {
-		courses.stream()
-		.filter(c -> c.getId() == courseId)
-		.findFirst()
-		.ifPresent(course -> {
-			course.loadStudents(fileName);
-		});
+		loadStudentsIntoCourse(fileName, courseId, null);
+	}
+	
+	/**
+	 * Loads students from a file into a course, the file is parsed before the course's lock is acquired.
+	 * The students are recorded in a journal, as a single record, before being added.
+	 * 
+	 * @param fileName File to load students from
+	 * @param courseId Identifier of course to load students into
+	 * @param journal Journal recording the change, null when changes are not journaled
+	 * @return the sequence number of the record, 0 when not recorded or when there is no such course
+	 * @throws RuntimeException When the change cannot be recorded, no student is added then
+	 */
+	public long loadStudentsIntoCourse(String fileName, int courseId, TermJournal journal) {
+		Course course = findCourse(courseId);
+		if(Objects.isNull(course)) return 0;
+		if(course.isCourseFull()) throw course.courseFullError();
+		List<Student> students = course.parseStudents(loadFromFile(fileName));
+		return orZero(changeCourse(courseId, changed -> changed.loadStudents(students, journal)));
+	}
+	
+	/**
+	 * Writes the string representation of this term, one course at a time
+	 * 
+	 * @param out Writer to write the term to
+	 */
+	public void write(TagWriter out) {
+		out.append("<term>\n")
+			.value("termcode", termCode)
+			.append("\n")
+			.append("<courses>\n");
+		String separator = "";
+		for(Course course : courses) {
+			out.append(separator);
+			course.write(out);
+			separator = "\n";
+		}
+		out.append("\n</courses>\n")
+			.append("</term>");
 	}
 	
 	public String toString() {
-		return new StringBuilder()
-				.append("<term>\n")
-				.append("<termcode>")
-				.append(termCode)
-				.append("</termcode>\n")
-				.append("<courses>\n")
-				.append(formatCourses())
-				.append("\n</courses>\n")
-				.append("</term>")
-				.toString();
-	}
-}
\ No newline at end of file
+		return TagWriter.render(this::write);
+	}
+	
+	/**
+	 * List of courses kept in sync with its index by identifier, the first course of the list wins when identifiers are shared.
+	 * Each change updates the index in place, lookups read it without locking and are retried under the lock
+	 * when the index changed meanwhile. Iterators do not lock either, they see the courses as they were when iteration started.
+	 */
+	/**
+	 * Copy of a term in progress: the courses of the term when the copy started, and the copies made so far
+	 */
+	private static class Capture {
+		
+		private final List<Course> courses;
+		
+		/**
+		 * Copy of each course, taken before its first change or when the copy completes
+		 */
+		private final Map<Course, Course> copies = new ConcurrentHashMap<>();
+		
+		private Capture(List<Course> courses) {
+			this.courses = courses;
+		}
+		
+		/**
+		 * Must be called while holding the course's lock
+		 * 
+		 * @param course Course of the term
+		 * @return the copy of the course, taken now unless it was taken before
+		 */
+		private Course copyOf(Course course) {
+			return copies.computeIfAbsent(course, Course::copy);
+		}
+	}
+	
+	private static class CourseList extends AbstractList<Course> implements RandomAccess {
+		
+		private final List<Course> courses = new CopyOnWriteArrayList<>();
+		
+		private final IntObjectMap<Course> index = new IntObjectMap<>();
+		
+		/**
+		 * Write lock held while changing the list and its index, lookups validate their optimistic read against it
+		 */
+		private final StampedLock lock = new StampedLock();
+		
+		@Override
+		public Course get(int position) {
+			return courses.get(position);
+		}
+		
+		@Override
+		public int size() {
+			return courses.size();
+		}
+		
+		@Override
+		public Iterator<Course> iterator() {
+			return courses.iterator();
+		}
+		
+		@Override
+		public void add(int position, Course course) {
+			long stamp = lock.writeLock();
+			try {
+				courses.add(position, course);
+				indexAdded(position, course);
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+		
+		/**
+		 * Adds courses at the end of the list, indexing them in a single pass (used when a term is parsed)
+		 */
+		@Override
+		public boolean addAll(Collection<? extends Course> added) {
+			long stamp = lock.writeLock();
+			try {
+				for(Course course : added) index.putIfAbsent(course.getId(), course); //Courses already in the list come first
+				return courses.addAll(added);
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+		
+		@Override
+		public Course set(int position, Course course) {
+			long stamp = lock.writeLock();
+			try {
+				Course previous = courses.set(position, course);
+				indexRemoved(previous);
+				indexAdded(position, course);
+				return previous;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+		
+		@Override
+		public Course remove(int position) {
+			long stamp = lock.writeLock();
+			try {
+				Course removed = courses.remove(position);
+				indexRemoved(removed);
+				return removed;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+		
+		@Override
+		public boolean remove(Object course) {
+			long stamp = lock.writeLock();
+			try {
+				boolean removed = courses.remove(course);
+				if(removed) indexRemoved((Course) course);
+				return removed;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+		
+		/**
+		 * Removes the courses matching a filter, the index is then built again
+		 */
+		@Override
+		public boolean removeIf(Predicate<? super Course> filter) {
+			long stamp = lock.writeLock();
+			try {
+				boolean removed = courses.removeIf(filter);
+				if(removed) {
+					index.clear();
+					for(Course course : courses) index.putIfAbsent(course.getId(), course);
+				}
+				return removed;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+		
+		/**
+		 * @param courseId Identifier of the course
+		 * @return the course, or null when not found
+		 */
+		private Course find(int courseId) {
+			long stamp = lock.tryOptimisticRead();
+			if(stamp != 0) {
+				try {
+					Course course = index.get(courseId);
+					if(lock.validate(stamp)) return course;
+				} catch (RuntimeException e) { //Read while the index was resized, read again under the lock
+				}
+			}
+			stamp = lock.readLock();
+			try {
+				return index.get(courseId);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		
+		/**
+		 * Indexes a course inserted in the list, must be called while holding the write lock
+		 * 
+		 * @param position Position of the course in the list
+		 * @param course The course
+		 */
+		private void indexAdded(int position, Course course) {
+			Course indexed = index.get(course.getId());
+			if(indexed == null || (position < courses.size() - 1 && courses.indexOf(indexed) > position)) { //Shared identifiers only
+				index.put(course.getId(), course);
+			}
+		}
+		
+		/**
+		 * Removes a course from the index, pointing its identifier to the next course sharing it if any.
+		 * Must be called while holding the write lock.
+		 * 
+		 * @param removed Course removed from the list
+		 */
+		private void indexRemoved(Course removed) {
+			if(index.get(removed.getId()) != removed) return;
+			for(Course course : courses) {
+				if(course.getId() == removed.getId()) {
+					index.put(course.getId(), course);
+					return;
+				}
+			}
+			index.remove(removed.getId());
+		}
+	}
+}
@@ -0,0 +1,582 @@
+package edu.umuc.swen.domain;
+
+import static edu.umuc.swen.domain.util.FileUtil.mapBytesFromFile;
+import static edu.umuc.swen.domain.util.FileUtil.writeToFileAtomically;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the changes made to a term, replayed on top of the last saved term to restore it.
+ * <p>
+ * Each change is appended as a record (length:int crc32:int payload) once it has been checked, before it is applied to the term.
+ * Appending only writes to the file, {@link #sync(long)} forces it to disk: callers waiting at the same time
+ * share a single force (group commit), so the cost of durability follows the size of the changes, not of the term.
+ * A record that was not completely written (crash while appending) is dropped when the journal is opened,
+ * batches of changes are recorded as a single record so that they are replayed entirely or not at all.
+ * <p>
+ * The journal is compacted by starting a new journal next to the current one ({@link #startNext()}) when a snapshot
+ * of the term is taken, the new journal replaces the current one once the snapshot is saved. The new journal holds
+ * the checksum of the snapshot, {@link #recover(String, String, String, Term)} uses it to finish a compaction interrupted by a crash.
+ *
+ * @author ezerbo
+ *
+ */
+public class TermJournal implements Closeable {
+
+	/**
+	 * "TRMJ", marks the start of a term journal
+	 */
+	public final static int MAGIC = 0x54524D4A;
+
+	/**
+	 * Version of the record format
+	 */
+	public final static int VERSION = 2;
+
+	/**
+	 * Header size of version 1 (magic and version) and of the current version (magic, version and base checksum)
+	 */
+	private final static int HEADER_SIZE_V1 = 8;
+	private final static int HEADER_SIZE = 16;
+
+	/**
+	 * Suffix of the journal started by a compaction
+	 */
+	public final static String NEXT_SUFFIX = ".next";
+
+	private final static byte ADD_COURSE = 1;
+	private final static byte REMOVE_COURSE = 2;
+	private final static byte ADD_STUDENT = 3;
+	private final static byte REMOVE_STUDENT = 4;
+	private final static byte CHANGE_GPA = 5;
+	private final static byte ADD_STUDENTS = 6;
+	private final static byte CHANGE_GPAS = 7;
+
+	private volatile String fileName;
+
+	private final FileChannel channel;
+
+	private int headerSize = HEADER_SIZE;
+
+	/**
+	 * Checksum of the snapshot this journal applies to, 0 when it applies to any term file
+	 */
+	private long baseChecksum;
+
+	/**
+	 * Journal being compacted when this journal was started, its records must be on disk before the records of this journal
+	 */
+	private volatile TermJournal predecessor;
+
+	/**
+	 * Number of records appended since the journal was opened
+	 */
+	private long appended;
+
+	/**
+	 * Number of records appended since the journal was opened that are known to be on disk
+	 */
+	private volatile long synced;
+
+	/**
+	 * Held while forcing the journal to disk, callers waiting for it are synced by the next force
+	 */
+	private final Object syncLock = new Object();
+
+	/**
+	 * Opens a journal, creating it when it does not exist
+	 *
+	 * @param fileName File of the journal
+	 * @throws RuntimeException When the journal cannot be opened
+	 */
+	public TermJournal(String fileName) {
+		this(fileName, 0);
+	}
+
+	/**
+	 * Opens a journal, creating it when it does not exist
+	 *
+	 * @param fileName File of the journal
+	 * @param baseChecksum Checksum of the snapshot the journal applies to when it is created, 0 for any term file
+	 * @throws RuntimeException When the journal cannot be opened
+	 */
+	public TermJournal(String fileName, long baseChecksum) {
+		this.fileName = fileName;
+		try {
+			this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			if(channel.size() == 0) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(baseChecksum);
+				header.flip();
+				write(header);
+				channel.force(true);
+				this.baseChecksum = baseChecksum;
+			} else {
+				channel.truncate(validLength()); //Drops a record left incomplete by a crash
+				channel.position(channel.size());
+			}
+		} catch (IOException e) {
+			throw failure("Unable to open '%s', message: '%s'", e);
+		}
+	}
+
+	/**
+	 * Applies the changes recorded in this journal to a term
+	 *
+	 * @param term Term to apply the changes to, as it was when the journal was started
+	 * @return the number of changes applied
+	 * @throws RuntimeException When the journal cannot be read
+	 */
+	public synchronized int replay(Term term) {
+		int replayed = 0;
+		ByteBuffer records = map();
+		records.position(headerSize);
+		while(records.hasRemaining()) {
+			int length = records.getInt();
+			records.getInt(); //Checksum, verified when the journal was opened
+			ByteBuffer record = records.slice();
+			record.limit(length);
+			apply(record, term);
+			records.position(records.position() + length);
+			replayed++;
+		}
+		return replayed;
+	}
+
+	/**
+	 * Records that a course was added
+	 *
+	 * @param course The course
+	 * @return the sequence number of the record, to pass to {@link #sync(long)}
+	 */
+	public long addCourse(Course course) {
+		byte[] content = course.toString().getBytes(StandardCharsets.UTF_8);
+		return append(record(ADD_COURSE, 4 + content.length).putInt(content.length).put(content));
+	}
+
+	/**
+	 * Records that a course was removed
+	 *
+	 * @param courseId Identifier of the course
+	 * @return the sequence number of the record
+	 */
+	public long removeCourse(int courseId) {
+		return append(record(REMOVE_COURSE, 4).putInt(courseId));
+	}
+
+	/**
+	 * Records that a student was added to a course
+	 *
+	 * @param student The student
+	 * @param courseId Identifier of the course
+	 * @return the sequence number of the record
+	 */
+	public long addStudentToCourse(Student student, int courseId) {
+		byte[] content = student.toString().getBytes(StandardCharsets.UTF_8);
+		return append(record(ADD_STUDENT, 8 + content.length).putInt(courseId).putInt(content.length).put(content));
+	}
+
+	/**
+	 * Records that a student was removed from a course
+	 *
+	 * @param studentId Identifier of the student
+	 * @param courseId Identifier of the course
+	 * @return the sequence number of the record
+	 */
+	public long removeStudentFromCourse(int studentId, int courseId) {
+		return append(record(REMOVE_STUDENT, 8).putInt(courseId).putInt(studentId));
+	}
+
+	/**
+	 * Records that the GPA of a student changed
+	 *
+	 * @param studentId Identifier of the student
+	 * @param courseId Identifier of the course
+	 * @param gpa New GPA
+	 * @return the sequence number of the record
+	 */
+	public long changeStudentGpa(int studentId, int courseId, double gpa) {
+		return append(record(CHANGE_GPA, 16).putInt(courseId).putInt(studentId).putDouble(gpa));
+	}
+
+	/**
+	 * Records that students were added to courses in one batch, replayed entirely or not at all
+	 *
+	 * @param enrollments Students added and their course, in the order they were added
+	 * @return the sequence number of the record
+	 */
+	public long addStudentsToCourses(List<Enrollment> enrollments) {
+		byte[][] contents = new byte[enrollments.size()][];
+		int contentLength = 4;
+		for(int i = 0; i < contents.length; i++) {
+			contents[i] = enrollments.get(i).getStudent().toString().getBytes(StandardCharsets.UTF_8);
+			contentLength += 8 + contents[i].length;
+		}
+		ByteBuffer record = record(ADD_STUDENTS, contentLength).putInt(contents.length);
+		for(int i = 0; i < contents.length; i++) {
+			record.putInt(enrollments.get(i).getCourseId()).putInt(contents[i].length).put(contents[i]);
+		}
+		return append(record);
+	}
+
+	/**
+	 * Records that the GPAs of many students of a course changed at once, replayed entirely or not at all
+	 *
+	 * @param courseId Identifier of the course
+	 * @param studentIds Identifiers of the students
+	 * @param gpas New GPAs, at the same position as their student identifier
+	 * @return the sequence number of the record
+	 */
+	public long changeStudentGpas(int courseId, int[] studentIds, double[] gpas) {
+		ByteBuffer record = record(CHANGE_GPAS, 8 + 12 * studentIds.length).putInt(courseId).putInt(studentIds.length);
+		for(int i = 0; i < studentIds.length; i++) record.putInt(studentIds[i]).putDouble(gpas[i]);
+		return append(record);
+	}
+
+	/**
+	 * Waits until a record (and every record before it) is on disk.
+	 * Records appended by other callers while waiting are forced to disk at the same time.
+	 *
+	 * @param sequence Sequence number of the record
+	 * @throws RuntimeException When the journal cannot be forced to disk
+	 */
+	public void sync(long sequence) {
+		if(synced >= sequence) return;
+		TermJournal predecessor = this.predecessor;
+		if(predecessor != null) predecessor.syncAll();
+		synchronized (syncLock) {
+			if(synced >= sequence) return; //Forced to disk while waiting for the lock
+			long target;
+			synchronized (this) {
+				target = appended;
+			}
+			try {
+				channel.force(false);
+			} catch (IOException e) {
+				throw failure("Unable to write to '%s', message: '%s'", e);
+			}
+			synced = target;
+		}
+	}
+
+	/**
+	 * Waits until every record appended so far is on disk
+	 */
+	public void syncAll() {
+		long sequence;
+		synchronized (this) {
+			sequence = appended;
+		}
+		sync(sequence);
+	}
+
+	/**
+	 * Starts the journal that replaces this one once a snapshot of the term is saved.
+	 * The records of this journal are forced to disk before those of the new journal.
+	 *
+	 * @return the new journal, named after this one with the {@link #NEXT_SUFFIX} suffix
+	 * @throws RuntimeException When this journal already replaces another one (its compaction did not complete)
+	 */
+	public TermJournal startNext() {
+		if(predecessor != null)
+			throw new RuntimeException(String.format("The compaction of '%s' did not complete, the journal is recovered on restart", predecessor.fileName));
+		TermJournal next = new TermJournal(fileName + NEXT_SUFFIX);
+		next.predecessor = this;
+		return next;
+	}
+
+	/**
+	 * Records the checksum of the snapshot this journal applies to, before the snapshot is saved
+	 *
+	 * @param snapshotChecksum Checksum of the snapshot (see {@link #checksum(ByteBuffer)})
+	 * @throws RuntimeException When the checksum cannot be written
+	 */
+	public synchronized void setBaseChecksum(long snapshotChecksum) {
+		if(headerSize != HEADER_SIZE) throw new RuntimeException(String.format("'%s' is in an older version", fileName));
+		ByteBuffer checksum = ByteBuffer.allocate(8).putLong(snapshotChecksum);
+		checksum.flip();
+		try {
+			while(checksum.hasRemaining()) channel.write(checksum, HEADER_SIZE - 8 + checksum.position());
+			channel.force(false);
+		} catch (IOException e) {
+			throw failure("Unable to write to '%s', message: '%s'", e);
+		}
+		baseChecksum = snapshotChecksum;
+	}
+
+	/**
+	 * Replaces the journal this journal was started from, once the snapshot is saved.
+	 * The previous journal is forced to disk and closed, this journal then takes its file name.
+	 *
+	 * @throws RuntimeException When the file cannot be replaced, the call can then be made again
+	 */
+	public void replacePredecessor() {
+		TermJournal previous = predecessor;
+		if(previous == null) throw new RuntimeException(String.format("'%s' does not replace another journal", fileName));
+		previous.syncAll();
+		previous.close();
+		moveTo(previous.fileName);
+		predecessor = null; //Only once replaced, records of this journal are never forced before those of the previous one
+	}
+
+	/**
+	 * Opens the journal of a term and replays it on top of the term,
+	 * finishing a compaction that was interrupted by a crash.
+	 * When the snapshot of the compaction was not saved, the term is saved once the previous journal is replayed on top of it,
+	 * before the new journal replaces the previous one: the records of the previous journal are never lost.
+	 *
+	 * @param fileName File of the journal
+	 * @param termFileName File the term was loaded from
+	 * @param snapshotFileName File the snapshot of the term is saved to when the journal is compacted
+	 * @param term The term, as loaded from 'termFileName'
+	 * @return the opened journal
+	 * @throws RuntimeException When the journals cannot be read or the snapshot cannot be saved
+	 */
+	public static TermJournal recover(String fileName, String termFileName, String snapshotFileName, Term term) {
+		if(!Files.exists(Paths.get(fileName + NEXT_SUFFIX))) {
+			TermJournal journal = new TermJournal(fileName);
+			journal.replay(term);
+			return journal;
+		}
+		TermJournal next = new TermJournal(fileName + NEXT_SUFFIX);
+		boolean snapshotSaved = next.getBaseChecksum() == checksum(mapBytesFromFile(termFileName));
+		if(!snapshotSaved && Files.exists(Paths.get(fileName))) { //The term file still is the base of the previous journal
+			try (TermJournal previous = new TermJournal(fileName)) {
+				previous.replay(term);
+			}
+			ByteBuffer snapshot = TermSnapshotCodec.encode(term); //The snapshot the compaction failed to save
+			next.setBaseChecksum(checksum(snapshot));
+			writeToFileAtomically(snapshotFileName, snapshot);
+		}
+		next.replay(term);
+		next.moveTo(fileName);
+		return next;
+	}
+
+	/**
+	 * @param snapshot Snapshot of a term, from its position to its limit
+	 * @return the checksum identifying the snapshot
+	 */
+	public static long checksum(ByteBuffer snapshot) {
+		CRC32 checksum = new CRC32();
+		checksum.update(snapshot.duplicate());
+		return checksum.getValue();
+	}
+
+	/**
+	 * @return the checksum of the snapshot this journal applies to, 0 when it applies to any term file
+	 */
+	public long getBaseChecksum() {
+		return baseChecksum;
+	}
+
+	/**
+	 * @return the size of the journal in bytes
+	 */
+	public synchronized long size() {
+		try {
+			return channel.size();
+		} catch (IOException e) {
+			throw failure("Unable to read from '%s', message: '%s'", e);
+		}
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * @return indicator, true when no record was appended since the journal was created
+	 */
+	public boolean isEmpty() {
+		return size() <= headerSize;
+	}
+
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw failure("Unable to close '%s', message: '%s'", e);
+		}
+	}
+
+	/**
+	 * @param type Type of the record
+	 * @param contentLength Length of the content following the type
+	 * @return a buffer holding the record header and type, to which the content is added
+	 */
+	private static ByteBuffer record(byte type, int contentLength) {
+		return ByteBuffer.allocate(8 + 1 + contentLength)
+				.putInt(1 + contentLength)
+				.putInt(0) //Checksum, set once the content is added
+				.put(type);
+	}
+
+	/**
+	 * @param record Complete record
+	 * @return the sequence number of the record
+	 */
+	private synchronized long append(ByteBuffer record) {
+		CRC32 checksum = new CRC32();
+		checksum.update(record.array(), 8, record.position() - 8);
+		record.putInt(4, (int) checksum.getValue());
+		record.flip();
+		try {
+			write(record);
+		} catch (IOException e) {
+			throw failure("Unable to write to '%s', message: '%s'", e);
+		}
+		return ++appended;
+	}
+
+	/**
+	 * Renames the journal file while it is open, replacing 'target'
+	 *
+	 * @param target New name of the journal file
+	 */
+	private synchronized void moveTo(String target) {
+		try {
+			Files.move(Paths.get(fileName), Paths.get(target), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			throw failure("Unable to write to '%s', message: '%s'", e);
+		}
+		fileName = target;
+	}
+
+	private void write(ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) channel.write(buffer);
+	}
+
+	/**
+	 * @return the content of the journal file
+	 */
+	private ByteBuffer map() {
+		try {
+			return channel.map(MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException e) {
+			throw failure("Unable to read from '%s', message: '%s'", e);
+		}
+	}
+
+	/**
+	 * Reads the header and checks the records of the journal
+	 *
+	 * @return the length of the journal up to the end of the last complete record
+	 */
+	private long validLength() {
+		ByteBuffer records = map();
+		if(records.remaining() < HEADER_SIZE_V1 || records.getInt() != MAGIC) //Magic and version are at the same place in every version
+			throw new RuntimeException(String.format("'%s' is not a term journal", fileName));
+		int version = records.getInt();
+		if(version == 1) {
+			headerSize = HEADER_SIZE_V1;
+		} else if(version == VERSION) {
+			if(records.remaining() < HEADER_SIZE - HEADER_SIZE_V1)
+				throw new RuntimeException(String.format("'%s' is not a term journal", fileName));
+			baseChecksum = records.getLong();
+		} else {
+			throw new RuntimeException(String.format("Unsupported journal version : %s", version));
+		}
+		CRC32 checksum = new CRC32();
+		while(records.remaining() >= 8) {
+			int start = records.position();
+			int length = records.getInt();
+			int expected = records.getInt();
+			if(length <= 0 || length > records.remaining()) return start;
+			ByteBuffer record = records.slice();
+			record.limit(length);
+			checksum.reset();
+			checksum.update(record);
+			if((int) checksum.getValue() != expected) return start;
+			records.position(records.position() + length);
+		}
+		return records.position();
+	}
+
+	/**
+	 * Applies one record to a term, without checking dates or capacities again
+	 *
+	 * @param record Record, positioned at its type
+	 * @param term Term to apply the record to
+	 */
+	private void apply(ByteBuffer record, Term term) {
+		try {
+			byte type = record.get();
+			switch (type) {
+			case ADD_COURSE:
+				term.restoreCourse(Term.getCourseFromString(string(record)));
+				break;
+			case REMOVE_COURSE:
+				term.restoreCourseRemoval(record.getInt());
+				break;
+			case ADD_STUDENT: //Like the term, changes made to a missing course are ignored
+				Course target = term.findCourse(record.getInt());
+				Student student = new Student(string(record));
+				if(Objects.nonNull(target)) target.restoreStudent(student);
+				break;
+			case REMOVE_STUDENT:
+				target = term.findCourse(record.getInt());
+				int studentId = record.getInt();
+				if(Objects.nonNull(target)) target.restoreStudentRemoval(studentId);
+				break;
+			case CHANGE_GPA:
+				target = course(term, record.getInt());
+				target.changeStudentGpa(record.getInt(), record.getDouble());
+				break;
+			case ADD_STUDENTS:
+				for(int count = record.getInt(); count > 0; count--) {
+					target = term.findCourse(record.getInt());
+					student = new Student(string(record));
+					if(Objects.nonNull(target)) target.restoreStudent(student);
+				}
+				break;
+			case CHANGE_GPAS:
+				target = course(term, record.getInt());
+				int[] studentIds = new int[record.getInt()];
+				double[] gpas = new double[studentIds.length];
+				for(int i = 0; i < studentIds.length; i++) {
+					studentIds[i] = record.getInt();
+					gpas[i] = record.getDouble();
+				}
+				target.changeStudentGpas(studentIds, gpas);
+				break;
+			default:
+				throw new RuntimeException(String.format("No such journal record type : %s", type));
+			}
+		} catch (BufferUnderflowException e) {
+			throw new RuntimeException(String.format("Corrupted record in '%s'", fileName), e);
+		}
+	}
+
+	private static String string(ByteBuffer record) {
+		byte[] content = new byte[record.getInt()];
+		record.get(content);
+		return new String(content, StandardCharsets.UTF_8);
+	}
+
+	private Course course(Term term, int courseId) {
+		Course course = term.findCourse(courseId);
+		if(Objects.isNull(course))
+			throw new RuntimeException(String.format("No course found with id: %s while replaying '%s'", courseId, fileName));
+		return course;
+	}
+
+	private RuntimeException failure(String format, IOException cause) {
+		String errorMessage = String.format(format, fileName, cause.getMessage());
+		System.err.println(errorMessage);
+		return new RuntimeException(errorMessage, cause);
+	}
+
+}
@@ -0,0 +1,343 @@
+package edu.umuc.swen.domain;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot format of a term, much more compact and faster to read than the text format.
+ * <p>
+ * A snapshot is made of a header (magic number and version), a string table, an address table and the term itself.
+ * Strings are written once in the string table as length-prefixed UTF-8 and referred to by position,
+ * addresses are written once in the address table as string references and also referred to by position.
+ * Numbers and grades are written as primitives, dates as epoch milliseconds. A reference of -1 stands for null.
+ * <p>
+ * Version 1 layout:
+ * <pre>
+ * snapshot := magic:int version:int strings addresses term
+ * strings := count:int (length:int utf8:byte[length])*
+ * addresses := count:int (buildingNumber street city state zipCode)*  (string references)
+ * term := termCode:ref courseCount:int course*
+ * course := type:byte id:int name:ref startDate:long endDate:long meetingDays:ref meetingTimes:ref termCode:ref
+ *           studentCount:int student* gradeCount:int (studentId:int)* (gpa:double)* details
+ * student := id:int firstName:ref lastName:ref overallGpa:double emailAddress:ref mailingAddress:address-ref
+ * details := url:ref (online) | url:ref location (hybrid) | location location (lab)
+ * location := present:byte [roomNumber:ref buildingName:ref address:address-ref]
+ * </pre>
+ *
+ * @author ezerbo
+ *
+ */
+public class TermSnapshotCodec {
+
+	/**
+	 * "TRMS", marks the start of a term snapshot
+	 */
+	public final static int MAGIC = 0x54524D53;
+
+	/**
+	 * Version of the format written by this codec
+	 */
+	public final static int VERSION = 1;
+
+	private final static byte ONLINE_COURSE = 1;
+	private final static byte HYBRID_COURSE = 2;
+	private final static byte LAB_COURSE = 3;
+
+	/**
+	 * Stands for a null reference or date
+	 */
+	private final static int NULL = -1;
+	private final static long NULL_DATE = Long.MIN_VALUE;
+
+	private TermSnapshotCodec() {
+	}
+
+	/**
+	 * Encodes a term into a new buffer
+	 *
+	 * @param term Term to encode
+	 * @return a buffer holding the snapshot, positioned at its start
+	 */
+	public static ByteBuffer encode(Term term) {
+		Encoder encoder = new Encoder();
+		encoder.writeTerm(term);
+		return encoder.finish();
+	}
+
+	/**
+	 * Decodes a term from a buffer, starting at its position.
+	 * The position of the buffer is moved past the snapshot.
+	 *
+	 * @param buffer Buffer holding the snapshot
+	 * @return the decoded term
+	 * @throws RuntimeException When the buffer does not hold a supported snapshot
+	 */
+	public static Term decode(ByteBuffer buffer) {
+		try {
+			int magic = buffer.getInt();
+			if(magic != MAGIC) throw new RuntimeException("Not a term snapshot");
+			int version = buffer.getInt();
+			if(version != VERSION) throw new RuntimeException(String.format("Unsupported snapshot version : %s", version));
+			return new Decoder(buffer).readTerm();
+		} catch (BufferUnderflowException e) {
+			throw new RuntimeException("Truncated term snapshot", e);
+		}
+	}
+
+	/**
+	 * Writes the body of a snapshot while collecting its strings and addresses,
+	 * the header and tables are only known (and written) once the body is complete
+	 */
+	private static class Encoder {
+
+		private final Map<String, Integer> strings = new HashMap<>();
+		private final List<byte[]> encodedStrings = new ArrayList<>();
+		private final Map<List<String>, Integer> addresses = new HashMap<>();
+		private final List<int[]> addressReferences = new ArrayList<>();
+		private ByteBuffer body = ByteBuffer.allocate(4096);
+
+		private void writeTerm(Term term) {
+			Course[] courses = term.getCourses().toArray(new Course[0]); //A single copy, the count matches the courses encoded
+			ensureCapacity(8);
+			body.putInt(string(term.getTermCode())).putInt(courses.length);
+			for(Course course : courses) writeCourse(course);
+		}
+
+		private void writeCourse(Course course) {
+			synchronized (course) { //Students and grades are encoded as of the same change
+				writeCourseBody(course);
+			}
+		}
+
+		private void writeCourseBody(Course course) {
+			ensureCapacity(41);
+			body.put(type(course))
+				.putInt(course.id)
+				.putInt(string(course.name))
+				.putLong(date(course.startDate))
+				.putLong(date(course.endDate))
+				.putInt(string(course.meetingDays))
+				.putInt(string(course.meetingTimes))
+				.putInt(string(course.termCode))
+				.putInt(course.students.size());
+			for(Student student : course.students) writeStudent(student);
+			Gradebook gradebook = course.gradebook;
+			ensureCapacity(4 + gradebook.size() * 12);
+			body.putInt(gradebook.size());
+			for(int i = 0; i < gradebook.size(); i++) body.putInt(gradebook.studentIdAt(i));
+			for(int i = 0; i < gradebook.size(); i++) body.putDouble(gradebook.gpaAt(i));
+			if(course instanceof OnlineCourse) {
+				writeReference(string(((OnlineCourse) course).getUrl()));
+			} else if(course instanceof HybridCourse) {
+				writeReference(string(((HybridCourse) course).getUrl()));
+				writeLocation(((HybridCourse) course).getClassroomLocation());
+			} else {
+				writeLocation(((LabCourse) course).getClassroomLocation());
+				writeLocation(((LabCourse) course).getLabRoomLocation());
+			}
+		}
+
+		private void writeStudent(Student student) {
+			ensureCapacity(28);
+			body.putInt(student.getId())
+				.putInt(string(student.getFirstName()))
+				.putInt(string(student.getLastName()))
+				.putDouble(student.getOverallGpa())
+				.putInt(string(student.getEmailAddress()))
+				.putInt(address(student.getMailingAddress()));
+		}
+
+		private void writeLocation(Location location) {
+			ensureCapacity(13);
+			if(location == null) {
+				body.put((byte) 0);
+				return;
+			}
+			body.put((byte) 1)
+				.putInt(string(location.getRoomNumber()))
+				.putInt(string(location.getBuildingName()))
+				.putInt(address(location.getAddress()));
+		}
+
+		private void writeReference(int reference) {
+			ensureCapacity(4);
+			body.putInt(reference);
+		}
+
+		/**
+		 * @param value String to refer to, may be null
+		 * @return the position of 'value' in the string table
+		 */
+		private int string(String value) {
+			if(value == null) return NULL;
+			Integer reference = strings.get(value);
+			if(reference == null) {
+				reference = encodedStrings.size();
+				strings.put(value, reference);
+				encodedStrings.add(value.getBytes(StandardCharsets.UTF_8));
+			}
+			return reference;
+		}
+
+		/**
+		 * @param address Address to refer to, may be null
+		 * @return the position of 'address' in the address table
+		 */
+		private int address(Address address) {
+			if(address == null) return NULL;
+			List<String> key = Arrays.asList(address.getBuildingNumber(), address.getStreet(),
+					address.getCity(), address.getState(), address.getZipCode());
+			Integer reference = addresses.get(key);
+			if(reference == null) {
+				reference = addressReferences.size();
+				addresses.put(key, reference);
+				addressReferences.add(key.stream().mapToInt(this::string).toArray());
+			}
+			return reference;
+		}
+
+		/**
+		 * @return the complete snapshot: header, tables and body
+		 */
+		private ByteBuffer finish() {
+			int size = 16 + addressReferences.size() * 20 + body.position();
+			for(byte[] encoded : encodedStrings) size += 4 + encoded.length;
+			ByteBuffer snapshot = ByteBuffer.allocate(size);
+			snapshot.putInt(MAGIC).putInt(VERSION);
+			snapshot.putInt(encodedStrings.size());
+			for(byte[] encoded : encodedStrings) snapshot.putInt(encoded.length).put(encoded);
+			snapshot.putInt(addressReferences.size());
+			for(int[] references : addressReferences) {
+				for(int reference : references) snapshot.putInt(reference);
+			}
+			body.flip();
+			snapshot.put(body);
+			snapshot.flip();
+			return snapshot;
+		}
+
+		private void ensureCapacity(int bytes) {
+			if(body.remaining() >= bytes) return;
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(body.capacity() << 1, body.position() + bytes));
+			body.flip();
+			body = larger.put(body);
+		}
+
+		private static byte type(Course course) {
+			if(course instanceof OnlineCourse) return ONLINE_COURSE;
+			if(course instanceof HybridCourse) return HYBRID_COURSE;
+			if(course instanceof LabCourse) return LAB_COURSE;
+			throw new RuntimeException(String.format("No such course type : %s", course.getClass().getName()));
+		}
+
+		private static long date(Date date) {
+			return (date != null) ? date.getTime() : NULL_DATE;
+		}
+	}
+
+	/**
+	 * Reads a snapshot once its header is read
+	 */
+	private static class Decoder {
+
+		private final ByteBuffer buffer;
+		private final String[] strings;
+		private final Address[] addresses;
+
+		private Decoder(ByteBuffer buffer) {
+			this.buffer = buffer;
+			this.strings = new String[buffer.getInt()];
+			for(int i = 0; i < strings.length; i++) {
+				byte[] encoded = new byte[buffer.getInt()];
+				buffer.get(encoded);
+				strings[i] = new String(encoded, StandardCharsets.UTF_8);
+			}
+			this.addresses = new Address[buffer.getInt()];
+			for(int i = 0; i < addresses.length; i++) { //Built once, addresses are shared by the students and locations referring to them
+				addresses[i] = Address.canonical(new Address(string(), string(), string(), string(), string()));
+			}
+		}
+
+		private Term readTerm() {
+			String termCode = string();
+			int count = buffer.getInt();
+			List<Course> courses = new LinkedList<>();
+			for(int i = 0; i < count; i++) courses.add(readCourse());
+			return new Term(termCode, courses);
+		}
+
+		private Course readCourse() {
+			byte type = buffer.get();
+			int id = buffer.getInt();
+			String name = string();
+			Date startDate = date();
+			Date endDate = date();
+			String meetingDays = string();
+			String meetingTimes = string();
+			String termCode = string();
+			Roster students = new Roster();
+			int studentCount = buffer.getInt();
+			for(int i = 0; i < studentCount; i++) students.add(readStudent());
+			Gradebook gradebook = new Gradebook();
+			int gradeCount = buffer.getInt();
+			int[] studentIds = new int[gradeCount];
+			for(int i = 0; i < gradeCount; i++) studentIds[i] = buffer.getInt();
+			for(int i = 0; i < gradeCount; i++) gradebook.setGpa(studentIds[i], buffer.getDouble());
+			Course course;
+			switch (type) {
+			case ONLINE_COURSE:
+				course = new OnlineCourse(id, string(), name, startDate, endDate, meetingDays, termCode, meetingTimes);
+				break;
+			case HYBRID_COURSE:
+				String url = string();
+				course = new HybridCourse(id, name, startDate, endDate, meetingDays, meetingTimes, termCode, url, readLocation());
+				break;
+			case LAB_COURSE:
+				Location classroomLocation = readLocation();
+				course = new LabCourse(id, name, startDate, endDate, meetingDays, meetingTimes, termCode, classroomLocation, readLocation());
+				break;
+			default:
+				throw new RuntimeException(String.format("No such course type : %s", type));
+			}
+			course.restoreStudents(students);
+			course.gradebook = gradebook;
+			return course;
+		}
+
+		private Student readStudent() {
+			return new Student(buffer.getInt(), string(), string(), buffer.getDouble(), string(), address());
+		}
+
+		private Location readLocation() {
+			if(buffer.get() == 0) return null;
+			return new Location(string(), string(), address());
+		}
+
+		private String string() {
+			return string(buffer.getInt());
+		}
+
+		private String string(int reference) {
+			return (reference != NULL) ? strings[reference] : null;
+		}
+
+		private Address address() {
+			int reference = buffer.getInt();
+			return (reference != NULL) ? addresses[reference] : null;
+		}
+
+		private Date date() {
+			long time = buffer.getLong();
+			return (time != NULL_DATE) ? new Date(time) : null;
+		}
+	}
+
+}
@@ -1,15 +1,41 @@
 package edu.umuc.swen.domain.util;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author ezerbo
  *
  */
 public class FileUtil {
+	
+	/**
+	 * Number of characters decoded at once when loading a file
+	 */
+	private final static int DECODING_CHUNK_SIZE = 8192;
 
 	private FileUtil() {
 	}
@@ -28,21 +54,246 @@ public class FileUtil {
 	}
 	
 	/**
-	 * Loads the 
+	 * Streams content to a file through a buffered UTF-8 writer, nothing is rendered in memory beforehand
+	 * 
+	 * @param fileName File to write content to
+	 * @param content Writes the content to the TagWriter it is given
+	 */
+	public static void writeToFile(String fileName, Consumer<TagWriter> content) {
+		try (Writer writer = Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8)) {
+			content.accept(new TagWriter(writer));
+		} catch (Exception e) {
+			System.err.println(String.format("Unable to write to '%s', message: '%s'",
+					fileName, e.getMessage()));
+		}
+	}
+	
+	/**
+	 * Streams content to a file so that the file is either fully replaced or left untouched.
+	 * Content is written to a temporary file in the same directory, forced to disk,
+	 * then atomically renamed over 'fileName'.
+	 * 
+	 * @param fileName File to write content to
+	 * @param content Writes the content to the TagWriter it is given
+	 * @throws RuntimeException When the content cannot be written
+	 */
+	public static void writeToFileAtomically(String fileName, Consumer<TagWriter> content) {
+		replaceFileAtomically(fileName, channel -> {
+			Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1));
+			content.accept(new TagWriter(writer));
+			writer.flush(); //Not closed, the channel still has to be forced to disk
+		});
+	}
+	
+	/**
+	 * Writes bytes to a file so that the file is either fully replaced or left untouched
+	 * 
+	 * @param fileName File to write content to
+	 * @param content Bytes to write, from the position to the limit of the buffer
+	 * @throws RuntimeException When the content cannot be written
+	 */
+	public static void writeToFileAtomically(String fileName, ByteBuffer content) {
+		ByteBuffer bytes = content.duplicate(); //Leaves the position of 'content' untouched
+		replaceFileAtomically(fileName, channel -> {
+			while(bytes.hasRemaining()) channel.write(bytes);
+		});
+	}
+	
+	/**
+	 * Writes content to a temporary file in the same directory as 'fileName', forces it to disk,
+	 * then atomically renames it over 'fileName'. The temporary file is removed when anything fails,
+	 * the file keeps its permissions when it is replaced.
+	 * 
+	 * @param fileName File to write content to
+	 * @param content Writes the content to the channel it is given
+	 * @throws RuntimeException When the content cannot be written
+	 */
+	public static void replaceFileAtomically(String fileName, ChannelWriter content) {
+		Path target = Paths.get(fileName).toAbsolutePath();
+		Path temporaryFile = null;
+		boolean moved = false;
+		try {
+			temporaryFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+			copyPermissions(target, temporaryFile);
+			try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+				content.write(channel);
+				channel.force(true);
+			}
+			Files.move(temporaryFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			moved = true;
+			forceDirectory(target.getParent());
+		} catch (IOException e) {
+			throw writeFailure(fileName, e);
+		} catch (UncheckedIOException e) {
+			throw writeFailure(fileName, e.getCause());
+		} finally {
+			if(!moved) deleteQuietly(temporaryFile); //Whatever the failure, runtime exceptions of 'content' included
+		}
+	}
+	
+	/**
+	 * Gives a file the POSIX permissions of another one, temporary files are only readable by their owner otherwise
+	 * 
+	 * @param source File whose permissions are copied, nothing is done when it does not exist
+	 * @param target File receiving the permissions
+	 * @throws IOException When the permissions cannot be read or changed
+	 */
+	private static void copyPermissions(Path source, Path target) throws IOException {
+		if(!Files.exists(source) || !source.getFileSystem().supportedFileAttributeViews().contains("posix")) return;
+		Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+	}
+	
+	/**
+	 * @param fileName File that could not be written to
+	 * @param cause Cause of the failure
+	 * @return the exception to report to the caller
+	 */
+	private static RuntimeException writeFailure(String fileName, IOException cause) {
+		String errorMessage = String.format("Unable to write to '%s', message: '%s'",
+				fileName, cause.getMessage());
+		System.err.println(errorMessage);
+		return new RuntimeException(errorMessage, cause);
+	}
+	
+	/**
+	 * Forces a directory entry change (such as a rename) to disk.
+	 * Not every platform allows opening a directory, the rename is already done when it fails.
+	 * 
+	 * @param directory Directory to force to disk
+	 */
+	private static void forceDirectory(Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			//Directories cannot be opened on some platforms (Windows)
+		}
+	}
+	
+	/**
+	 * @param file File to delete, may be null
+	 */
+	private static void deleteQuietly(Path file) {
+		try {
+			if(file != null) Files.deleteIfExists(file);
+		} catch (IOException e) {
+			System.err.println(String.format("Unable to delete '%s', message: '%s'", file, e.getMessage()));
+		}
+	}
+	
+	/**
+	 * Loads the content of a file, carriage returns are removed
 	 * 
 	 * @param fileName File to load data from
 	 * @return content of the file
 	 */
 	public static String loadFromFile(String fileName) {
-		try {
-			String content = new String(Files.readAllBytes(Paths.get(fileName)));
-			return content.replaceAll("\r", "");
+		return mapFromFile(fileName).toString();
+	}
+	
+	/**
+	 * Memory-maps a file and decodes its UTF-8 content, carriage returns are skipped while decoding.
+	 * The content is decoded into a single character array, the file is never held in memory as a byte array.
+	 * 
+	 * @param fileName File to load data from
+	 * @return content of the file
+	 */
+	public static CharBuffer mapFromFile(String fileName) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			if(channel.size() > Integer.MAX_VALUE)
+				throw new IOException(String.format("File is too large (%s bytes)", channel.size()));
+			MappedByteBuffer bytes = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			char[] content = new char[(int) channel.size()]; //UTF-8 never decodes to more chars than bytes
+			int length = decode(bytes, content);
+			int offset = (length > 0 && content[0] == '\uFEFF') ? 1 : 0; //Skip the byte order mark
+			return CharBuffer.wrap(content, offset, length - offset);
 		} catch (IOException e) {
 			String errorMessage = String.format("Unable to read from '%s', message: '%s'",
 					fileName, e.getMessage());
 			System.err.println(errorMessage);
 			throw new RuntimeException(errorMessage);
 		}
+	}
+	
+	/**
+	 * Maps the content of a file into memory, without decoding it
+	 * 
+	 * @param fileName File to map
+	 * @return a read-only buffer holding the content of the file
+	 * @throws RuntimeException When the file cannot be read
+	 */
+	public static ByteBuffer mapBytesFromFile(String fileName) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			return channel.map(MapMode.READ_ONLY, 0, channel.size()); //The mapping stays valid once the channel is closed
+		} catch (IOException e) {
+			String errorMessage = String.format("Unable to read from '%s', message: '%s'",
+					fileName, e.getMessage());
+			System.err.println(errorMessage);
+			throw new RuntimeException(errorMessage);
+		}
+	}
+	
+	/**
+	 * Lists the regular files of a directory, sorted by name
+	 * 
+	 * @param directory Directory to list
+	 * @return the paths of the files
+	 * @throws RuntimeException When the directory cannot be listed
+	 */
+	public static List<String> listFiles(String directory) {
+		try (Stream<Path> paths = Files.list(Paths.get(directory))) {
+			return paths.filter(Files::isRegularFile)
+					.sorted()
+					.map(Path::toString)
+					.collect(Collectors.toList());
+		} catch (IOException e) {
+			String errorMessage = String.format("Unable to list '%s', message: '%s'",
+					directory, e.getMessage());
+			System.err.println(errorMessage);
+			throw new RuntimeException(errorMessage);
+		}
+	}
+	
+	/**
+	 * Decodes UTF-8 bytes into 'content', one chunk at a time, leaving out carriage returns
+	 * 
+	 * @param bytes Bytes to decode
+	 * @param content Array receiving the decoded characters
+	 * @return the number of characters written to 'content'
+	 * @throws CharacterCodingException When the bytes are not valid UTF-8
+	 */
+	private static int decode(MappedByteBuffer bytes, char[] content) throws CharacterCodingException {
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		CharBuffer chunk = CharBuffer.allocate(DECODING_CHUNK_SIZE);
+		int length = 0;
+		boolean endOfInput = false;
+		while(true) {
+			CoderResult result = endOfInput ? decoder.flush(chunk) : decoder.decode(bytes, chunk, true);
+			if(result.isError()) result.throwException();
+			chunk.flip();
+			while(chunk.hasRemaining()) {
+				char c = chunk.get();
+				if(c != '\r') content[length++] = c;
+			}
+			chunk.clear();
+			if(result.isUnderflow()) {
+				if(endOfInput) return length;
+				endOfInput = true;
+			}
+		}
+	}
+	
+	/**
+	 * Writes content to a file channel
+	 */
+	@FunctionalInterface
+	public interface ChannelWriter {
 		
+		/**
+		 * @param channel Channel to write content to
+		 * @throws IOException When the channel cannot be written to
+		 */
+		void write(FileChannel channel) throws IOException;
 	}
-}
+}
\ No newline at end of file
@@ -0,0 +1,185 @@
+package edu.umuc.swen.domain.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map with primitive int keys, using open addressing (linear probing).
+ * Keys are not boxed and no entry object is created per mapping. Null values are not allowed.
+ *
+ * @author ezerbo
+ *
+ * @param <V> Type of the values
+ */
+public class IntObjectMap<V> {
+
+	/**
+	 * Initial number of slots, always a power of two
+	 */
+	private final static int INITIAL_CAPACITY = 16;
+
+	private int[] keys;
+
+	/**
+	 * Values of the map, a null value marks a free slot
+	 */
+	private Object[] values;
+
+	private int size;
+
+	public IntObjectMap() {
+		this.keys = new int[INITIAL_CAPACITY];
+		this.values = new Object[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * @param key Key to look up
+	 * @return the value mapped to 'key', or null when there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		int mask = keys.length - 1;
+		for(int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+			if(keys[slot] == key) return (V) values[slot];
+		}
+		return null;
+	}
+
+	/**
+	 * @param key Key to test
+	 * @return indicator
+	 */
+	public boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Maps 'value' to 'key', replacing the previous value
+	 *
+	 * @param key The key
+	 * @param value The value, not null
+	 * @return the previous value, or null when there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if(value == null) throw new IllegalArgumentException("Null values are not allowed");
+		int mask = keys.length - 1;
+		int slot = slot(key, mask);
+		for(; values[slot] != null; slot = (slot + 1) & mask) {
+			if(keys[slot] == key) {
+				V previous = (V) values[slot];
+				values[slot] = value;
+				return previous;
+			}
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if(++size > (keys.length >> 1) + (keys.length >> 2)) resize(); //Load factor of 0.75
+		return null;
+	}
+
+	/**
+	 * Maps 'value' to 'key' unless 'key' is already mapped
+	 *
+	 * @param key The key
+	 * @param value The value, not null
+	 * @return the current value, or null when 'value' was added
+	 */
+	public V putIfAbsent(int key, V value) {
+		V current = get(key);
+		return (current != null) ? current : put(key, value);
+	}
+
+	/**
+	 * Removes the mapping of 'key'
+	 *
+	 * @param key The key
+	 * @return the removed value, or null when there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int mask = keys.length - 1;
+		for(int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+			if(keys[slot] == key) {
+				V removed = (V) values[slot];
+				shiftBack(slot, mask);
+				size--;
+				return removed;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the number of mappings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return indicator
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all mappings
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * Fills the slot freed by a removal with the next entries of its probe sequence,
+	 * so that lookups never stop on a hole (no tombstones needed).
+	 *
+	 * @param freed The freed slot
+	 * @param mask Mask applied to slots
+	 */
+	private void shiftBack(int freed, int mask) {
+		int slot = freed;
+		while(true) {
+			slot = (slot + 1) & mask;
+			if(values[slot] == null) break;
+			int home = slot(keys[slot], mask);
+			//Move the entry back when its home slot is not between the freed slot and its current slot
+			if(((slot - home) & mask) >= ((slot - freed) & mask)) {
+				keys[freed] = keys[slot];
+				values[freed] = values[slot];
+				freed = slot;
+			}
+		}
+		values[freed] = null;
+	}
+
+	/**
+	 * Doubles the number of slots
+	 */
+	private void resize() {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[oldKeys.length << 1];
+		values = new Object[oldValues.length << 1];
+		int mask = keys.length - 1;
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldValues[i] == null) continue;
+			int slot = slot(oldKeys[i], mask);
+			while(values[slot] != null) slot = (slot + 1) & mask;
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+	}
+
+	/**
+	 * @param key The key
+	 * @param mask Mask applied to slots
+	 * @return the home slot of 'key'
+	 */
+	static int slot(int key, int mask) {
+		int hash = key * 0x9E3779B9; //Spreads sequential identifiers across the table
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+}
@@ -1,7 +1,10 @@
 package edu.umuc.swen.domain.util;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.util.Date;
 
 
@@ -11,7 +14,11 @@ import java.util.Date;
  */
 public class ParsingUtil {
 	
-	private final static SimpleDateFormat formatter = new SimpleDateFormat("MM/dd/yyyy");
+	/**
+	 * Date format used in term files (example: 04/25/2019). DateTimeFormatter is immutable and can be shared between threads.
+	 */
+	private final static DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/uuuu")
+			.withResolverStyle(ResolverStyle.STRICT);
 	
 	private ParsingUtil() {} //Utility Class, no instance can be created
 	
@@ -20,26 +27,60 @@ public class ParsingUtil {
 	 * @param property Property for which the value is retrieved
 	 * @return the value of 'propertyName'
 	 */
-	public static String getPropertyValue(String line, String property) {
-		try {
-			String startingNode = String.format("<%s>", property);
-			String endingNode = String.format("</%s>", property);
-			return line.substring(line.indexOf(startingNode) + startingNode.length(), line.indexOf(endingNode));
-		} catch (StringIndexOutOfBoundsException e) {
+	public static String getPropertyValue(CharSequence line, String property) {
+		String startingNode = String.format("<%s>", property);
+		String endingNode = String.format("</%s>", property);
+		int startingNodeIndex = indexOf(line, startingNode, 0);
+		int endingNodeIndex = indexOf(line, endingNode, 0);
+		if(startingNodeIndex == -1 || endingNodeIndex < startingNodeIndex + startingNode.length())
 			return null; //Return null when property not found
+		return line.subSequence(startingNodeIndex + startingNode.length(), endingNodeIndex).toString();
+	}
+	
+	/**
+	 * Finds the first occurrence of 'str' in 'content', starting at 'fromIndex'
+	 * 
+	 * @param content Content to search
+	 * @param str String to find
+	 * @param fromIndex Index to start the search from
+	 * @return the index of 'str', or -1 when not found
+	 */
+	public static int indexOf(CharSequence content, String str, int fromIndex) {
+		if(content instanceof String) return ((String) content).indexOf(str, fromIndex);
+		char first = str.charAt(0);
+		int last = content.length() - str.length();
+		for(int i = Math.max(fromIndex, 0); i <= last; i++) {
+			if(content.charAt(i) != first) continue;
+			int j = 1;
+			while(j < str.length() && content.charAt(i + j) == str.charAt(j)) j++;
+			if(j == str.length()) return i;
 		}
+		return -1;
 	}
 	
+	/**
+	 * Parses a date (example: 04/25/2019), the returned date is set to the start of that day in the default time zone
+	 * 
+	 * @param date String to parse the date from
+	 * @return the date
+	 */
 	public static Date parseDate(String date) {
 		try {
-			return formatter.parse(date);
-		} catch (ParseException e) {
+			LocalDate localDate = LocalDate.parse(date, formatter);
+			return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+		} catch (DateTimeParseException e) {
 			throw new RuntimeException(String.format("Unable to parse date : %s", date));
 		}
 	}
 	
+	/**
+	 * Formats a date (example: 04/25/2019) in the default time zone
+	 * 
+	 * @param date Date to format
+	 * @return the formatted date
+	 */
 	public static String format(Date date) {
-		return formatter.format(date);
+		return formatter.format(date.toInstant().atZone(ZoneId.systemDefault()));
 	}
 	
 }
@@ -0,0 +1,27 @@
+package edu.umuc.swen.domain.util;
+
+/**
+ * Pool of the strings repeated across a term (term codes, cities, streets, building names, meeting days...),
+ * so that equal values parsed from different elements share one instance instead of one copy per element.
+ * The pool is bounded and weakly referenced (see {@link WeakInterner}).
+ *
+ * @author ezerbo
+ *
+ */
+public class StringPool {
+
+	private final static WeakInterner<String> POOL = new WeakInterner<>(1 << 14);
+
+	private StringPool() {} //Utility Class, no instance can be created
+
+	/**
+	 * Returns the pooled instance equal to 'value', pooling 'value' when there is none
+	 *
+	 * @param value String to deduplicate, may be null
+	 * @return a string equal to 'value'
+	 */
+	public static String intern(String value) {
+		return POOL.intern(value);
+	}
+
+}
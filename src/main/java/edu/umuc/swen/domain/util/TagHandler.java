@@ -0,0 +1,31 @@
+package edu.umuc.swen.domain.util;
+
+/**
+ * Receives the events emitted by {@link TagTokenizer} while it walks
+ * through content written in the <code>&lt;tag&gt;value&lt;/tag&gt;</code> format.
+ *
+ * @author ezerbo
+ *
+ */
+public interface TagHandler {
+
+	/**
+	 * Called when an element containing other elements is opened (example: &lt;student&gt;)
+	 *
+	 * @param tag Name of the element
+	 * @return The handler receiving the element's children, or null to keep using this handler
+	 */
+	default TagHandler start(String tag) {
+		return null;
+	}
+
+	/**
+	 * Called for each element holding a value (example: &lt;id&gt;1&lt;/id&gt;)
+	 *
+	 * @param tag Name of the element
+	 * @param value Value of the element
+	 */
+	default void value(String tag, String value) {
+	}
+
+}
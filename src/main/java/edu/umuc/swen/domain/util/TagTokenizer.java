@@ -0,0 +1,72 @@
+package edu.umuc.swen.domain.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Single pass tokenizer for the <code>&lt;tag&gt;value&lt;/tag&gt;</code> format used by term files.
+ * Each character is visited once, elements are reported to a {@link TagHandler} as they are read.
+ *
+ * @author ezerbo
+ *
+ */
+public class TagTokenizer {
+
+	private TagTokenizer() {} //Utility Class, no instance can be created
+
+	/**
+	 * Walks through 'content' and reports its elements to 'handler'.
+	 * An element is reported as a value when it only holds text, it is reported as the start
+	 * of a nested element otherwise. Text found between nested elements (new lines) is ignored.
+	 *
+	 * @param content Content to tokenize
+	 * @param handler Handler receiving the top level elements
+	 * @return handler The handler passed as parameter
+	 */
+	public static <H extends TagHandler> H tokenize(CharSequence content, H handler) {
+		Deque<TagHandler> handlers = new ArrayDeque<>();
+		Deque<String> openTags = new ArrayDeque<>();
+		TagHandler current = handler;
+		String pendingTag = null; //Last opened tag, not known yet to be a value or a nested element
+		int valueStart = 0;
+		int length = content.length();
+		int index = 0;
+		while(index < length) {
+			if(content.charAt(index) != '<') {
+				index++;
+				continue;
+			}
+			boolean closing = index + 1 < length && content.charAt(index + 1) == '/';
+			int nameStart = closing ? index + 2 : index + 1;
+			int nameEnd = nameStart;
+			while(nameEnd < length && content.charAt(nameEnd) != '>') nameEnd++;
+			if(nameEnd == length)
+				throw new RuntimeException(String.format("Unterminated tag at index %s", index));
+			String tag = content.subSequence(nameStart, nameEnd).toString();
+			if(!closing) {
+				if(pendingTag != null) { //The pending tag holds other elements
+					handlers.push(current);
+					openTags.push(pendingTag);
+					TagHandler child = current.start(pendingTag);
+					current = (child != null) ? child : current;
+				}
+				pendingTag = tag;
+				valueStart = nameEnd + 1;
+			} else if(pendingTag != null) {
+				if(!pendingTag.equals(tag))
+					throw new RuntimeException(String.format("Expected '</%s>' but found '</%s>'", pendingTag, tag));
+				current.value(tag, content.subSequence(valueStart, index).toString());
+				pendingTag = null;
+			} else {
+				if(openTags.isEmpty() || !openTags.pop().equals(tag))
+					throw new RuntimeException(String.format("Unexpected closing tag '</%s>'", tag));
+				current = handlers.pop();
+			}
+			index = nameEnd + 1;
+		}
+		if(pendingTag != null || !openTags.isEmpty())
+			throw new RuntimeException(String.format("Unclosed tag '<%s>'", (pendingTag != null) ? pendingTag : openTags.peek()));
+		return handler;
+	}
+
+}
@@ -0,0 +1,87 @@
+package edu.umuc.swen.domain.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes content in the <code>&lt;tag&gt;value&lt;/tag&gt;</code> format used by term files
+ * straight to its destination (a file, a string builder...), one element at a time.
+ *
+ * @author ezerbo
+ *
+ */
+public class TagWriter {
+
+	/**
+	 * Destination of the written content
+	 */
+	private final Appendable out;
+
+	/**
+	 * @param out Destination of the written content
+	 */
+	public TagWriter(Appendable out) {
+		this.out = out;
+	}
+
+	/**
+	 * Renders a record into a string
+	 *
+	 * @param record Writes the record to the TagWriter it is given
+	 * @return The string representation of the record
+	 */
+	public static String render(Consumer<TagWriter> record) {
+		StringBuilder builder = new StringBuilder();
+		record.accept(new TagWriter(builder));
+		return builder.toString();
+	}
+
+	/**
+	 * Writes text as is
+	 *
+	 * @param text Text to write
+	 * @return this writer
+	 * @throws UncheckedIOException When the destination cannot be written to
+	 */
+	public TagWriter append(String text) {
+		try {
+			out.append(text);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes an element holding a value (example: &lt;name&gt;MATH101&lt;/name&gt;)
+	 *
+	 * @param tag Name of the element
+	 * @param value Value of the element
+	 * @return this writer
+	 */
+	public TagWriter value(String tag, String value) {
+		return append("<").append(tag).append(">")
+				.append(value)
+				.append("</").append(tag).append(">");
+	}
+
+	/**
+	 * @param tag Name of the element
+	 * @param value Value of the element
+	 * @return this writer
+	 */
+	public TagWriter value(String tag, int value) {
+		return value(tag, Integer.toString(value));
+	}
+
+	/**
+	 * @param tag Name of the element
+	 * @param value Value of the element
+	 * @return this writer
+	 */
+	public TagWriter value(String tag, double value) {
+		return value(tag, Double.toString(value));
+	}
+
+}
@@ -0,0 +1,46 @@
+package edu.umuc.swen.domain.util;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Canonicalizes equal immutable values so that they share one instance.
+ * <p>
+ * Values are kept in a fixed table of weak references indexed by hash, like a direct mapped cache:
+ * the table never grows, a value is replaced when another one falls in the same slot,
+ * and values no longer used by any object are garbage collected. Lookups take no lock.
+ *
+ * @author ezerbo
+ *
+ * @param <T> Type of the values, immutable with consistent equals and hashCode
+ */
+public class WeakInterner<T> {
+
+	private final AtomicReferenceArray<WeakReference<T>> slots;
+
+	/**
+	 * @param size Number of slots, a power of two
+	 */
+	public WeakInterner(int size) {
+		if(size <= 0 || Integer.bitCount(size) != 1) throw new RuntimeException(String.format("Invalid interner size : %s", size));
+		this.slots = new AtomicReferenceArray<>(size);
+	}
+
+	/**
+	 * Returns the canonical instance equal to 'value', 'value' becoming the canonical instance when there is none
+	 *
+	 * @param value Value to canonicalize, may be null
+	 * @return a value equal to 'value'
+	 */
+	public T intern(T value) {
+		if(value == null) return null;
+		int hash = value.hashCode();
+		int slot = (hash ^ (hash >>> 16)) & (slots.length() - 1);
+		WeakReference<T> reference = slots.get(slot);
+		T canonical = (reference != null) ? reference.get() : null;
+		if(value.equals(canonical)) return canonical;
+		slots.set(slot, new WeakReference<>(value)); //Replaces a colliding or collected value
+		return value;
+	}
+
+}
@@ -0,0 +1,19 @@
+package edu.umuc.swen.error;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class StudentNotFoundException extends RuntimeException {
+
+	private static final long serialVersionUID = 6180517368227393102L;
+	
+	public StudentNotFoundException(int studentId) {
+		super(String.format("No student found with id: %s", studentId));
+	}
+	
+	public String toString() {
+		return this.getMessage();
+	}
+
+}
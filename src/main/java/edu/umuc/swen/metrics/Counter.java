@@ -0,0 +1,47 @@
+package edu.umuc.swen.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count of events or bytes, updated by any number of threads without contending on a single variable
+ *
+ * @author ezerbo
+ *
+ */
+public class Counter implements CounterMBean {
+
+	private final String name;
+
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * @param name Name of the counter
+	 */
+	public Counter(String name) {
+		this.name = name;
+	}
+
+	public void increment() {
+		count.increment();
+	}
+
+	/**
+	 * @param amount Amount to add to the counter
+	 */
+	public void add(long amount) {
+		count.add(amount);
+	}
+
+	/**
+	 * @return the name of the counter
+	 */
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getCount() {
+		return count.sum();
+	}
+
+}
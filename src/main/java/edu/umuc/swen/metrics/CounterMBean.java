@@ -0,0 +1,16 @@
+package edu.umuc.swen.metrics;
+
+/**
+ * Management interface of a {@link Counter}
+ *
+ * @author ezerbo
+ *
+ */
+public interface CounterMBean {
+
+	/**
+	 * @return the value of the counter
+	 */
+	long getCount();
+
+}
@@ -0,0 +1,182 @@
+package edu.umuc.swen.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of latencies in nanoseconds, in the spirit of HdrHistogram: values below 128 ns are counted exactly,
+ * larger values are counted in buckets whose width doubles every power of two, each power of two being split in 64 buckets.
+ * Percentiles are thus within 1.6% of the value recorded, from nanoseconds to an hour (longer latencies are counted as an hour).
+ * <p>
+ * Recording a latency allocates nothing and takes no lock, so it can be done on every call of a hot path,
+ * by any number of threads. Percentiles are read without stopping writers, they may miss the latencies being recorded.
+ *
+ * @author ezerbo
+ *
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+
+	/**
+	 * Values below 2^SUB_BUCKET_BITS are counted exactly, every larger power of two is split in 2^(SUB_BUCKET_BITS - 1) buckets
+	 */
+	private final static int SUB_BUCKET_BITS = 7;
+
+	private final static int SUB_BUCKET_MASK = (1 << SUB_BUCKET_BITS) - 1;
+
+	private final static int SUB_BUCKET_HALF_BITS = SUB_BUCKET_BITS - 1;
+
+	/**
+	 * Largest latency told apart from the others, set to an hour
+	 */
+	private final static long HIGHEST_VALUE = TimeUnit.HOURS.toNanos(1);
+
+	private final String name;
+
+	private final AtomicLongArray counts = new AtomicLongArray(indexOf(HIGHEST_VALUE) + 1);
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder total = new LongAdder();
+
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * @param name Name of the histogram
+	 */
+	public LatencyHistogram(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Records a latency
+	 *
+	 * @param nanos Latency in nanoseconds, negative latencies are counted as 0
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(indexOf(value));
+		count.increment();
+		total.add(value);
+		long current;
+		while(value > (current = max.get()) && !max.compareAndSet(current, value)) { //Rarely loops, the maximum seldom changes
+		}
+	}
+
+	/**
+	 * Records the latency of an operation that started at 'startNanos'
+	 *
+	 * @param startNanos Value of {@link System#nanoTime()} when the operation started
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * @return the name of the histogram
+	 */
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return the sum of the latencies recorded, in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return total.sum();
+	}
+
+	/**
+	 * @return the largest latency recorded, in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return max.get();
+	}
+
+	/**
+	 * @return the mean latency, in nanoseconds, 0 when nothing was recorded
+	 */
+	public double getMeanNanos() {
+		long count = getCount();
+		return (count == 0) ? 0 : (double) getTotalNanos() / count;
+	}
+
+	/**
+	 * Returns the latency under which a share of the latencies recorded fall
+	 *
+	 * @param percentile Share of the latencies, between 0 and 100
+	 * @return the latency in nanoseconds, 0 when nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if(percentile < 0 || percentile > 100) throw new RuntimeException(String.format("Invalid percentile : %s", percentile));
+		long[] snapshot = new long[counts.length()];
+		long recorded = 0;
+		for(int i = 0; i < snapshot.length; i++) recorded += (snapshot[i] = counts.get(i));
+		if(recorded == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+		long seen = 0;
+		for(int i = 0; i < snapshot.length; i++) {
+			seen += snapshot[i];
+			if(seen >= rank) return Math.min(highestValueOf(i), getMaxNanos());
+		}
+		return getMaxNanos();
+	}
+
+	@Override
+	public double getMeanMicros() {
+		return getMeanNanos() / 1000;
+	}
+
+	@Override
+	public double getP50Micros() {
+		return getValueAtPercentile(50) / 1000.0;
+	}
+
+	@Override
+	public double getP90Micros() {
+		return getValueAtPercentile(90) / 1000.0;
+	}
+
+	@Override
+	public double getP99Micros() {
+		return getValueAtPercentile(99) / 1000.0;
+	}
+
+	@Override
+	public double getP999Micros() {
+		return getValueAtPercentile(99.9) / 1000.0;
+	}
+
+	@Override
+	public double getMaxMicros() {
+		return getMaxNanos() / 1000.0;
+	}
+
+	/**
+	 * @param value Latency in nanoseconds, not negative
+	 * @return the index of the bucket counting 'value'
+	 */
+	static int indexOf(long value) {
+		long clamped = Math.min(value, HIGHEST_VALUE);
+		int bucket = 63 - Long.numberOfLeadingZeros(clamped | SUB_BUCKET_MASK) - SUB_BUCKET_HALF_BITS; //0 below 128 ns
+		return (bucket << SUB_BUCKET_HALF_BITS) + (int) (clamped >>> bucket);
+	}
+
+	/**
+	 * @param index Index of a bucket
+	 * @return the largest latency counted in the bucket, in nanoseconds
+	 */
+	static long highestValueOf(int index) {
+		if(index <= SUB_BUCKET_MASK) return index;
+		int bucket = (index >>> SUB_BUCKET_HALF_BITS) - 1;
+		long subBucket = index - ((long) bucket << SUB_BUCKET_HALF_BITS);
+		return ((subBucket + 1) << bucket) - 1;
+	}
+
+}
@@ -0,0 +1,28 @@
+package edu.umuc.swen.metrics;
+
+/**
+ * Management interface of a {@link LatencyHistogram}, latencies are in microseconds
+ *
+ * @author ezerbo
+ *
+ */
+public interface LatencyHistogramMBean {
+
+	/**
+	 * @return the number of latencies recorded
+	 */
+	long getCount();
+
+	double getMeanMicros();
+
+	double getP50Micros();
+
+	double getP90Micros();
+
+	double getP99Micros();
+
+	double getP999Micros();
+
+	double getMaxMicros();
+
+}
@@ -0,0 +1,118 @@
+package edu.umuc.swen.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Latency histograms and counters, by name. Metrics are created on first use and live as long as the registry,
+ * components keep the metrics they update in fields so that nothing is looked up on their hot paths.
+ * <p>
+ * Metrics are read through JMX once {@link #registerMBeans(String)} has been called, or as text with {@link #dump()}.
+ *
+ * @author ezerbo
+ *
+ */
+public class MetricsRegistry {
+
+	private final static MetricsRegistry DEFAULT = new MetricsRegistry();
+
+	private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+
+	private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+
+	/**
+	 * JMX domain metrics are registered under, null until {@link #registerMBeans(String)} is called
+	 */
+	private String domain;
+
+	/**
+	 * @return the registry shared by the whole application
+	 */
+	public static MetricsRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns the histogram of a name, created when missing
+	 *
+	 * @param name Name of the histogram
+	 * @return histogram
+	 */
+	public LatencyHistogram histogram(String name) {
+		LatencyHistogram histogram = histograms.get(name);
+		if(histogram != null) return histogram;
+		synchronized (this) {
+			histogram = histograms.computeIfAbsent(name, LatencyHistogram::new);
+			if(domain != null) register(histogram, "Latency", name);
+			return histogram;
+		}
+	}
+
+	/**
+	 * Returns the counter of a name, created when missing
+	 *
+	 * @param name Name of the counter
+	 * @return counter
+	 */
+	public Counter counter(String name) {
+		Counter counter = counters.get(name);
+		if(counter != null) return counter;
+		synchronized (this) {
+			counter = counters.computeIfAbsent(name, Counter::new);
+			if(domain != null) register(counter, "Counter", name);
+			return counter;
+		}
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server, as '&lt;domain&gt;:type=Latency,name=&lt;name&gt;'
+	 * and '&lt;domain&gt;:type=Counter,name=&lt;name&gt;'. Metrics created later are registered as well.
+	 *
+	 * @param domain JMX domain of the metrics
+	 * @throws RuntimeException When the metrics were registered under another domain
+	 */
+	public synchronized void registerMBeans(String domain) {
+		if(this.domain != null) {
+			if(this.domain.equals(domain)) return;
+			throw new RuntimeException(String.format("Metrics are already registered under '%s'", this.domain));
+		}
+		this.domain = domain;
+		histograms.forEach((name, histogram) -> register(histogram, "Latency", name));
+		counters.forEach((name, counter) -> register(counter, "Counter", name));
+	}
+
+	private void register(Object metric, String type, String name) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			server.registerMBean(metric, new ObjectName(String.format("%s:type=%s,name=%s", domain, type, ObjectName.quote(name))));
+		} catch (InstanceAlreadyExistsException e) { //Registered by another registry of the same domain
+		} catch (JMException e) {
+			throw new RuntimeException(String.format("Unable to register metric '%s', message: '%s'", name, e.getMessage()), e);
+		}
+	}
+
+	/**
+	 * Writes every metric as text, one per line, in name order. Latencies are in microseconds:
+	 * <pre>
+	 * courseManager.addStudentToCourse count=1520 mean=41.2 p50=35.1 p90=60.4 p99=131.1 p99.9=402.4 max=1013.7
+	 * term.parse.bytes count=7340032
+	 * </pre>
+	 *
+	 * @return the metrics
+	 */
+	public String dump() {
+		StringBuilder builder = new StringBuilder();
+		histograms.values().forEach(histogram -> builder.append(String.format("%s count=%s mean=%.1f p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+				histogram.getName(), histogram.getCount(), histogram.getMeanMicros(), histogram.getP50Micros(), histogram.getP90Micros(),
+				histogram.getP99Micros(), histogram.getP999Micros(), histogram.getMaxMicros())));
+		counters.values().forEach(counter -> builder.append(String.format("%s count=%s%n", counter.getName(), counter.getCount())));
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,79 @@
+package edu.umuc.swen.service;
+
+import static edu.umuc.swen.domain.util.FileUtil.listFiles;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+
+import edu.umuc.swen.domain.Term;
+
+/**
+ * Loads every term file of a directory, one file per task of a ForkJoinPool.
+ * A file that cannot be loaded is reported in its result and does not stop the other files from loading.
+ * 
+ * @author ezerbo
+ *
+ */
+public class BulkTermLoader {
+	
+	private final ForkJoinPool pool;
+	
+	/**
+	 * Creates a loader running on the common pool, which has one thread per core
+	 */
+	public BulkTermLoader() {
+		this(ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * @param pool Pool the files are loaded on
+	 */
+	public BulkTermLoader(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+	
+	/**
+	 * Loads the term files of a directory in parallel
+	 * 
+	 * @param directory Directory holding the term files
+	 * @return one result per file, in file name order
+	 * @throws RuntimeException When the directory cannot be listed
+	 */
+	public List<TermLoadResult> loadDirectory(String directory) {
+		return load(listFiles(directory));
+	}
+	
+	/**
+	 * Loads term files in parallel
+	 * 
+	 * @param fileNames Files to load terms from
+	 * @return one result per file, in the order of 'fileNames'
+	 */
+	public List<TermLoadResult> load(List<String> fileNames) {
+		List<ForkJoinTask<TermLoadResult>> tasks = fileNames.stream()
+				.map(fileName -> pool.submit(() -> load(fileName)))
+				.collect(Collectors.toList());
+		return tasks.stream()
+				.map(ForkJoinTask::join)
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * @param fileName File to load the term from
+	 * @return result
+	 */
+	private static TermLoadResult load(String fileName) {
+		long start = System.nanoTime();
+		try {
+			Term term = new Term(fileName);
+			if(term.getTermCode() == null)
+				throw new RuntimeException(String.format("No term code found in '%s'", fileName));
+			return TermLoadResult.success(fileName, term, System.nanoTime() - start);
+		} catch (RuntimeException e) {
+			return TermLoadResult.failure(fileName, e, System.nanoTime() - start);
+		}
+	}
+	
+}
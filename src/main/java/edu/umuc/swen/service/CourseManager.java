@@ -1,19 +1,127 @@
 package edu.umuc.swen.service;
 
+import static edu.umuc.swen.domain.util.FileUtil.writeToFileAtomically;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
 import edu.umuc.swen.domain.Course;
+import edu.umuc.swen.domain.Enrollment;
+import edu.umuc.swen.domain.EnrollmentResult;
+import edu.umuc.swen.domain.GpaStatistics;
 import edu.umuc.swen.domain.Student;
 import edu.umuc.swen.domain.Term;
+import edu.umuc.swen.domain.TermJournal;
+import edu.umuc.swen.domain.TermSnapshotCodec;
+import edu.umuc.swen.metrics.Counter;
+import edu.umuc.swen.metrics.LatencyHistogram;
+import edu.umuc.swen.metrics.MetricsRegistry;
 
 /**
- * Manager class that allows external components to interact with CMS (Course Management System)
+ * Manager class that allows external components to interact with CMS (Course Management System).
+ * Besides the loaded term, other terms can be registered by term code, they are loaded on first access (see {@link TermRegistry}).
+ * <p>
+ * Changes to different courses of the loaded term run in parallel, changes to the same course run one at a time.
+ * Enrollments reserve their seat before locking the course, so that requests made to a full course are rejected without waiting.
+ * Adding or removing courses, batch enrollments and switching journals when compacting wait for every other change to complete.
  * 
  * @author ezerbo
  *
  */
 public class CourseManager {
 
+	/**
+	 * Suffix of the file the snapshot of the loaded term is saved to when the journal is compacted, next to the term file
+	 */
+	public final static String SNAPSHOT_SUFFIX = ".snapshot";
+	
+	private final static MetricsRegistry METRICS = MetricsRegistry.getDefault();
+	
+	/**
+	 * Latency of each operation, the number of calls gives the throughput
+	 */
+	private final static LatencyHistogram REGISTER_TERM = METRICS.histogram("courseManager.registerTerm");
+	private final static LatencyHistogram LOAD_TERMS = METRICS.histogram("courseManager.loadTerms");
+	private final static LatencyHistogram GET_TERM = METRICS.histogram("courseManager.getTerm");
+	private final static LatencyHistogram UNLOAD_IDLE_TERMS = METRICS.histogram("courseManager.unloadIdleTerms");
+	private final static LatencyHistogram ADD_STUDENT_TO_REGISTERED_COURSE = METRICS.histogram("courseManager.registeredTerm.addStudentToCourse");
+	private final static LatencyHistogram REMOVE_STUDENT_FROM_REGISTERED_COURSE = METRICS.histogram("courseManager.registeredTerm.removeStudentFromCourse");
+	private final static LatencyHistogram CHANGE_STUDENT_GPA_IN_REGISTERED_COURSE = METRICS.histogram("courseManager.registeredTerm.changeStudentGpa");
+	private final static LatencyHistogram CALCULATE_REGISTERED_COURSE_AVERAGE_GPA = METRICS.histogram("courseManager.registeredTerm.calculateCourseAverageGpa");
+	private final static LatencyHistogram GET_REGISTERED_COURSE = METRICS.histogram("courseManager.registeredTerm.getCourse");
+	private final static LatencyHistogram SAVE_TERM_TO_FILE = METRICS.histogram("courseManager.saveTermToFile");
+	private final static LatencyHistogram SAVE_TERM_TO_FILE_ATOMICALLY = METRICS.histogram("courseManager.saveTermToFileAtomically");
+	private final static LatencyHistogram SAVE_TERM_SNAPSHOT = METRICS.histogram("courseManager.saveTermSnapshot");
+	private final static LatencyHistogram ADD_COURSE = METRICS.histogram("courseManager.addCourse");
+	private final static LatencyHistogram REMOVE_COURSE = METRICS.histogram("courseManager.removeCourse");
+	private final static LatencyHistogram ADD_STUDENT_TO_COURSE = METRICS.histogram("courseManager.addStudentToCourse");
+	private final static LatencyHistogram ADD_STUDENTS_TO_COURSES = METRICS.histogram("courseManager.addStudentsToCourses");
+	private final static LatencyHistogram REMOVE_STUDENT_FROM_COURSE = METRICS.histogram("courseManager.removeStudentFromCourse");
+	private final static LatencyHistogram CALCULATE_COURSE_AVERAGE_GPA = METRICS.histogram("courseManager.calculateCourseAverageGpa");
+	private final static LatencyHistogram GET_COURSE_GPA_STATISTICS = METRICS.histogram("courseManager.getCourseGpaStatistics");
+	private final static LatencyHistogram GENERATE_COURSE_SCHEDULE = METRICS.histogram("courseManager.generateCourseSchedule");
+	private final static LatencyHistogram GENERATE_TERM_SCHEDULE = METRICS.histogram("courseManager.generateTermSchedule");
+	private final static LatencyHistogram SAVE_COURSE_SCHEDULE_TO_FILE = METRICS.histogram("courseManager.saveCourseScheduleToFile");
+	private final static LatencyHistogram LOAD_COURSE = METRICS.histogram("courseManager.loadCourse");
+	private final static LatencyHistogram CHANGE_STUDENT_GPA = METRICS.histogram("courseManager.changeStudentGpa");
+	private final static LatencyHistogram CHANGE_STUDENT_GPAS = METRICS.histogram("courseManager.changeStudentGpas");
+	private final static LatencyHistogram GET_COURSE = METRICS.histogram("courseManager.getCourse");
+	private final static LatencyHistogram LOAD_STUDENTS_INTO_COURSE = METRICS.histogram("courseManager.loadStudentsIntoCourse");
+	private final static LatencyHistogram COMPACT_JOURNAL = METRICS.histogram("courseManager.compactJournal");
+	
+	/**
+	 * Number of students enrolled and grades posted in batches
+	 */
+	private final static Counter ENROLLMENTS = METRICS.counter("courseManager.addStudentsToCourses.enrollments");
+	private final static Counter GRADES = METRICS.counter("courseManager.changeStudentGpas.grades");
+	
 	private Term loadedTerm;
 	
+	/**
+	 * Terms served by this manager, the loaded term included
+	 */
+	private final TermRegistry terms = new TermRegistry();
+	
+	/**
+	 * Journal of the changes made to the loaded term, null when changes are not journaled
+	 */
+	private volatile TermJournal journal;
+	
+	/**
+	 * File the snapshot of the loaded term is saved to when the journal is compacted, the term file itself is left untouched
+	 */
+	private String snapshotFileName;
+	
+	/**
+	 * Read lock held while changing a course, write lock held while adding or removing courses and while switching journals
+	 */
+	private final ReadWriteLock changeLock = new ReentrantReadWriteLock();
+	
+	/**
+	 * Held while compacting the journal, a single compaction runs at a time
+	 */
+	private final Object compactionLock = new Object();
+	
+	/**
+	 * Snapshot the current journal applies to that could not be saved yet, saved by the next compaction.
+	 * Guarded by compactionLock.
+	 */
+	private ByteBuffer pendingSnapshot;
+	
+	/**
+	 * Runs the periodic compaction of the journal, null when not started
+	 */
+	private ScheduledExecutorService compactor;
+	
 	/**
 	 * Creates an instance of CourseManager and loads a term
 	 * 
@@ -21,6 +129,196 @@ public class CourseManager {
 	 */
 	public CourseManager(String termFileName) {
 		this.loadedTerm = new Term(termFileName);
+		this.terms.add(loadedTerm);
+	}
+	
+	/**
+	 * Creates an instance of CourseManager, loads a term then replays the changes recorded in a journal.
+	 * Changes made to the loaded term through this manager are recorded in the journal and on disk before the call returns.
+	 * 
+	 * Once the journal has been compacted, the term is loaded from the snapshot saved next to the term file (see {@link #SNAPSHOT_SUFFIX}).
+	 * 
+	 * @param termFileName File to load term data from, in the text or binary snapshot format
+	 * @param journalFileName Journal of the changes made since the term file was saved, created when missing
+	 */
+	public CourseManager(String termFileName, String journalFileName) {
+		this.snapshotFileName = termFileName + SNAPSHOT_SUFFIX;
+		String baseFileName = Files.exists(Paths.get(snapshotFileName)) ? snapshotFileName : termFileName;
+		this.loadedTerm = Term.load(baseFileName);
+		this.journal = TermJournal.recover(journalFileName, baseFileName, snapshotFileName, loadedTerm);
+		this.terms.add(loadedTerm);
+	}
+	
+	/**
+	 * Registers a term, loaded from its file the first time it is used
+	 * 
+	 * @param termCode Code of the term
+	 * @param termFileName File to load term data from
+	 */
+	public void registerTerm(String termCode, String termFileName) {
+		long start = System.nanoTime();
+		try {
+			terms.register(termCode, termFileName);
+		} finally {
+			REGISTER_TERM.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Loads every term file of a directory in parallel and registers the terms loaded.
+	 * A file holding a term that is already registered is reported as failed.
+	 * 
+	 * @param directory Directory holding the term files
+	 * @return one result per file, in file name order
+	 */
+	public List<TermLoadResult> loadTerms(String directory) {
+		long start = System.nanoTime();
+		try {
+			return new BulkTermLoader().loadDirectory(directory).stream()
+					.map(this::register)
+					.collect(Collectors.toList());
+		} finally {
+			LOAD_TERMS.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Returns a registered term, loading it if needed
+	 * 
+	 * @param termCode Code of the term
+	 * @return term
+	 */
+	public Term getTerm(String termCode) {
+		long start = System.nanoTime();
+		try {
+			return terms.get(termCode);
+		} finally {
+			GET_TERM.recordSince(start);
+		}
+	}
+	
+	/**
+	 * @param result Result of loading a term file
+	 * @return 'result', or a failed result when the term cannot be registered
+	 */
+	private TermLoadResult register(TermLoadResult result) {
+		if(!result.isSuccessful()) return result;
+		try {
+			terms.add(result.getTerm(), result.getFileName());
+			return result;
+		} catch (RuntimeException e) {
+			return TermLoadResult.failure(result.getFileName(), e, result.getElapsedNanos());
+		}
+	}
+	
+	/**
+	 * Unloads the registered terms that were not used for a while, modified terms are saved to their file first
+	 * 
+	 * @param maxIdleMillis Time after which a term that is not used is unloaded
+	 * @return the number of terms unloaded
+	 */
+	public int unloadIdleTerms(long maxIdleMillis) {
+		long start = System.nanoTime();
+		try {
+			return terms.unloadIdleTerms(maxIdleMillis);
+		} finally {
+			UNLOAD_IDLE_TERMS.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Adds a student to a course of a registered term, changes to the loaded term are journaled
+	 * 
+	 * @param termCode Code of the term
+	 * @param student Student to be added
+	 * @param courseId Identifier of the course to add the student to
+	 */
+	public void addStudentToCourse(String termCode, Student student, int courseId) {
+		long start = System.nanoTime();
+		try {
+			if(isLoadedTerm(termCode)) addStudentToLoadedCourse(student, courseId);
+			else terms.modify(termCode, term -> term.addStudentToCourse(student, courseId));
+		} finally {
+			ADD_STUDENT_TO_REGISTERED_COURSE.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Removes a student from a course of a registered term, changes to the loaded term are journaled
+	 * 
+	 * @param termCode Code of the term
+	 * @param studentId Identifier of the student
+	 * @param courseId Identifier of the course
+	 */
+	public void removeStudentFromCourse(String termCode, int studentId, int courseId) {
+		long start = System.nanoTime();
+		try {
+			if(isLoadedTerm(termCode)) removeStudentFromLoadedCourse(studentId, courseId);
+			else terms.modify(termCode, term -> term.removeStudentFromCourse(studentId, courseId));
+		} finally {
+			REMOVE_STUDENT_FROM_REGISTERED_COURSE.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Updates a student's GPA in a course of a registered term, changes to the loaded term are journaled
+	 * 
+	 * @param termCode Code of the term
+	 * @param studentId Identifier of the student
+	 * @param courseId Identifier of the course
+	 * @param gpa New GPA
+	 */
+	public void changeStudentGpa(String termCode, Integer studentId, int courseId, Double gpa) {
+		long start = System.nanoTime();
+		try {
+			if(isLoadedTerm(termCode)) changeLoadedStudentGpa(studentId, courseId, gpa);
+			else terms.modify(termCode, term -> term.changeStudentGpa(studentId, courseId, gpa));
+		} finally {
+			CHANGE_STUDENT_GPA_IN_REGISTERED_COURSE.recordSince(start);
+		}
+	}
+	
+	/**
+	 * The loaded term is changed like through the methods taking no term code,
+	 * under the change lock and recorded in the journal, never through the registry.
+	 * 
+	 * @param termCode Code of a registered term
+	 * @return indicator, true when 'termCode' is the code of the loaded term
+	 */
+	private boolean isLoadedTerm(String termCode) {
+		return loadedTerm.getTermCode().equals(termCode);
+	}
+	
+	/**
+	 * Calculates the average GPA of a course of a registered term
+	 * 
+	 * @param termCode Code of the term
+	 * @param courseId Identifier of the course
+	 * @return averageGpa
+	 */
+	public double calculateCourseAverageGpa(String termCode, int courseId) {
+		long start = System.nanoTime();
+		try {
+			return terms.get(termCode).calculateCourseAverageGpa(courseId);
+		} finally {
+			CALCULATE_REGISTERED_COURSE_AVERAGE_GPA.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Finds a course of a registered term
+	 * 
+	 * @param termCode Code of the term
+	 * @param courseId Course identifier
+	 * @return Course whose identifier is passed as parameter
+	 */
+	public Course getCourse(String termCode, int courseId) {
+		long start = System.nanoTime();
+		try {
+			return terms.get(termCode).getCourse(courseId);
+		} finally {
+			GET_REGISTERED_COURSE.recordSince(start);
+		}
 	}
 	
 	/**
@@ -29,7 +327,42 @@ public class CourseManager {
 	 * @param fileName File to save term data to
 	 */
 	public void saveTermToFile(String fileName) {
-		loadedTerm.saveToFile(fileName);
+		long start = System.nanoTime();
+		try {
+			loadedTerm.saveToFile(fileName);
+		} finally {
+			SAVE_TERM_TO_FILE.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Saves the loaded term's data to a file, replacing the file atomically
+	 * 
+	 * @param fileName File to save term data to
+	 * @throws RuntimeException When term data cannot be saved
+	 */
+	public void saveTermToFileAtomically(String fileName) {
+		long start = System.nanoTime();
+		try {
+			loadedTerm.saveToFileAtomically(fileName);
+		} finally {
+			SAVE_TERM_TO_FILE_ATOMICALLY.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Saves the loaded term's data to a file in the binary snapshot format
+	 * 
+	 * @param fileName File to save the snapshot to
+	 * @throws RuntimeException When the snapshot cannot be saved
+	 */
+	public void saveTermSnapshot(String fileName) {
+		long start = System.nanoTime();
+		try {
+			loadedTerm.saveSnapshot(fileName);
+		} finally {
+			SAVE_TERM_SNAPSHOT.recordSince(start);
+		}
 	}
 	
 	/**
@@ -38,7 +371,12 @@ public class CourseManager {
 	 * @param course Course to be added
 	 */
 	public void addCourse(Course course) {
-		loadedTerm.addCourse(course);
+		long start = System.nanoTime();
+		try {
+			change(journal -> loadedTerm.addCourse(course, journal));
+		} finally {
+			ADD_COURSE.recordSince(start);
+		}
 	}
 	
 	/**
@@ -47,7 +385,12 @@ public class CourseManager {
 	 * @param courseId Identifier of the course
 	 */
 	public void removeCourse(int courseId) {
-		loadedTerm.removeCourse(courseId);
+		long start = System.nanoTime();
+		try {
+			change(journal -> loadedTerm.removeCourse(courseId, journal));
+		} finally {
+			REMOVE_COURSE.recordSince(start);
+		}
 	}
 	
 	/**
@@ -57,7 +400,53 @@ public class CourseManager {
 	 * @param courseId Identifier of the course to add the student to
 	 */
 	public void addStudentToCourse(Student student, int courseId) {
-		loadedTerm.addStudentToCourse(student, courseId);
+		long start = System.nanoTime();
+		try {
+			addStudentToLoadedCourse(student, courseId);
+		} finally {
+			ADD_STUDENT_TO_COURSE.recordSince(start);
+		}
+	}
+	
+	private void addStudentToLoadedCourse(Student student, int courseId) {
+		TermJournal target;
+		long sequence;
+		changeLock.readLock().lock();
+		try {
+			target = journal; //Not replaced while the read lock is held
+			sequence = loadedTerm.addStudentToCourse(student, courseId, target);
+		} finally {
+			changeLock.readLock().unlock();
+		}
+		sync(target, sequence);
+	}
+	
+	/**
+	 * Adds many students to courses of the loaded term, each course is found, checked and changed once (see {@link Term#addStudentsToCourses(List)}).
+	 * The students that have a seat are recorded in the journal, if any, as a single record replayed entirely or not at all.
+	 * No other change runs meanwhile, so that no change to the courses of the batch is recorded before the batch.
+	 * 
+	 * @param enrollments Students to add and the courses to add them to
+	 * @return the outcome of each enrollment, in the order of 'enrollments'
+	 */
+	public List<EnrollmentResult> addStudentsToCourses(List<Enrollment> enrollments) {
+		long start = System.nanoTime();
+		try {
+			ENROLLMENTS.add(enrollments.size());
+			TermJournal target;
+			List<EnrollmentResult> results;
+			changeLock.writeLock().lock();
+			try {
+				target = journal; //The journal may be replaced by a compaction once the lock is released
+				results = loadedTerm.addStudentsToCourses(enrollments, target);
+			} finally {
+				changeLock.writeLock().unlock();
+			}
+			if(target != null) target.syncAll(); //No other record was appended since the batch
+			return results;
+		} finally {
+			ADD_STUDENTS_TO_COURSES.recordSince(start);
+		}
 	}
 	
 	/**
@@ -67,7 +456,25 @@ public class CourseManager {
 	 * @param courseId Identifier of the course
 	 */
 	public void removeStudentFromCourse(int studentId, int courseId) {
-		loadedTerm.removeStudentFromCourse(studentId, courseId);
+		long start = System.nanoTime();
+		try {
+			removeStudentFromLoadedCourse(studentId, courseId);
+		} finally {
+			REMOVE_STUDENT_FROM_COURSE.recordSince(start);
+		}
+	}
+	
+	private void removeStudentFromLoadedCourse(int studentId, int courseId) {
+		TermJournal target;
+		long sequence;
+		changeLock.readLock().lock();
+		try {
+			target = journal; //Not replaced while the read lock is held
+			sequence = loadedTerm.removeStudentFromCourse(studentId, courseId, target);
+		} finally {
+			changeLock.readLock().unlock();
+		}
+		sync(target, sequence);
 	}
 	
 	/**
@@ -77,7 +484,27 @@ public class CourseManager {
 	 * @return averageGpa
 	 */
 	public double calculateCourseAverageGpa(int courseId) {
-		return loadedTerm.calculateCourseAverageGpa(courseId);
+		long start = System.nanoTime();
+		try {
+			return loadedTerm.calculateCourseAverageGpa(courseId);
+		} finally {
+			CALCULATE_COURSE_AVERAGE_GPA.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Returns the distribution of the GPAs of the course whose identifier is passed as parameter
+	 * 
+	 * @param courseId Identifier of the course
+	 * @return gpaStatistics
+	 */
+	public GpaStatistics getCourseGpaStatistics(int courseId) {
+		long start = System.nanoTime();
+		try {
+			return loadedTerm.getCourseGpaStatistics(courseId);
+		} finally {
+			GET_COURSE_GPA_STATISTICS.recordSince(start);
+		}
 	}
 	
 	/**
@@ -87,7 +514,12 @@ public class CourseManager {
 	 * @return courseSchedule
 	 */
 	public String generateCourseSchedule(int courseId) {
-		return loadedTerm.generateCourseSchedule(courseId);
+		long start = System.nanoTime();
+		try {
+			return loadedTerm.generateCourseSchedule(courseId);
+		} finally {
+			GENERATE_COURSE_SCHEDULE.recordSince(start);
+		}
 	}
 	
 	/**
@@ -96,7 +528,12 @@ public class CourseManager {
 	 * @return courseSchedule
 	 */
 	public String generateCourseSchedule() {
-		return loadedTerm.generateCourseSchedule();
+		long start = System.nanoTime();
+		try {
+			return loadedTerm.generateCourseSchedule();
+		} finally {
+			GENERATE_TERM_SCHEDULE.recordSince(start);
+		}
 	}
 	
 	/**
@@ -105,7 +542,12 @@ public class CourseManager {
 	 * @param fileName File to save course schedules to
 	 */
 	public void saveCourseScheduleToFile(String fileName) {
-		loadedTerm.saveCourseScheduleToFile(fileName);
+		long start = System.nanoTime();
+		try {
+			loadedTerm.saveCourseScheduleToFile(fileName);
+		} finally {
+			SAVE_COURSE_SCHEDULE_TO_FILE.recordSince(start);
+		}
 	}
 	
 	/**
@@ -114,7 +556,12 @@ public class CourseManager {
 	 * @param fileName File to load courses from
 	 */
 	public void loadCourse(String fileName) {
-		loadedTerm.loadCourse(fileName);;
+		long start = System.nanoTime();
+		try {
+			change(journal -> loadedTerm.loadCourse(fileName, journal));
+		} finally {
+			LOAD_COURSE.recordSince(start);
+		}
 	}
 	
 	/**
@@ -125,7 +572,52 @@ public class CourseManager {
 	 * @param gpa New GPA
 	 */
 	public void changeStudentGpa(Integer studentId, int courseId, Double gpa) {
-		loadedTerm.changeStudentGpa(studentId, courseId, gpa);
+		long start = System.nanoTime();
+		try {
+			changeLoadedStudentGpa(studentId, courseId, gpa);
+		} finally {
+			CHANGE_STUDENT_GPA.recordSince(start);
+		}
+	}
+	
+	private void changeLoadedStudentGpa(Integer studentId, int courseId, Double gpa) {
+		TermJournal target;
+		long sequence;
+		changeLock.readLock().lock();
+		try {
+			target = journal; //Not replaced while the read lock is held
+			sequence = loadedTerm.changeStudentGpa(studentId, courseId, gpa, target);
+		} finally {
+			changeLock.readLock().unlock();
+		}
+		sync(target, sequence);
+	}
+	
+	/**
+	 * Updates the GPAs of many students of a course at once, the grades are recorded in the journal, if any,
+	 * as a single record replayed entirely or not at all
+	 * 
+	 * @param courseId Identifier of the course
+	 * @param studentIds Identifiers of the students
+	 * @param gpas New GPAs, at the same position as their student identifier
+	 */
+	public void changeStudentGpas(int courseId, int[] studentIds, double[] gpas) {
+		long start = System.nanoTime();
+		try {
+			GRADES.add(studentIds.length);
+			TermJournal target;
+			long sequence;
+			changeLock.readLock().lock();
+			try {
+				target = journal; //Not replaced while the read lock is held
+				sequence = loadedTerm.changeStudentGpas(courseId, studentIds, gpas, target);
+			} finally {
+				changeLock.readLock().unlock();
+			}
+			sync(target, sequence);
+		} finally {
+			CHANGE_STUDENT_GPAS.recordSince(start);
+		}
 	}
 	
 	/**
@@ -135,7 +627,12 @@ public class CourseManager {
 	 * @return Course whose identifier is passed as parameter
 	 */
 	public Course getCourse(int courseId) {
-		return loadedTerm.getCourse(courseId);
+		long start = System.nanoTime();
+		try {
+			return loadedTerm.getCourse(courseId);
+		} finally {
+			GET_COURSE.recordSince(start);
+		}
 	}
 	
 	/**
@@ -145,7 +642,136 @@ public class CourseManager {
 	 * @param courseId Identifier of course to load students into
 	 */
 	public void loadStudentsIntoCourse(String fileName, int courseId) {
-		loadedTerm.loadStudentsIntoCourse(fileName, courseId);
+		long start = System.nanoTime();
+		try {
+			TermJournal target;
+			long sequence;
+			changeLock.readLock().lock();
+			try {
+				target = journal; //Not replaced while the read lock is held
+				sequence = loadedTerm.loadStudentsIntoCourse(fileName, courseId, target);
+			} finally {
+				changeLock.readLock().unlock();
+			}
+			sync(target, sequence);
+		} finally {
+			LOAD_STUDENTS_INTO_COURSE.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Saves a snapshot of the loaded term next to the term file then empties the journal, so that restarts replay few changes.
+	 * Changes are only held back while a new journal is started and a copy of the term begins (see {@link Term#startCapture()}).
+	 * The term is then copied and encoded while changes go on, recorded in the new journal,
+	 * which replaces the current one once the snapshot is on disk.
+	 * A snapshot that could not be saved is saved again by the next compaction, before a new snapshot is taken.
+	 * 
+	 * @throws RuntimeException When changes are not journaled or the snapshot cannot be saved
+	 */
+	public void compactJournal() {
+		long start = System.nanoTime();
+		try {
+			if(journal == null) throw new RuntimeException("Changes to the loaded term are not journaled");
+			synchronized (compactionLock) {
+				if(pendingSnapshot != null) savePendingSnapshot(); //The current journal still waits to replace the previous one
+				if(journal.isEmpty()) return;
+				TermJournal next = journal.startNext();
+				changeLock.writeLock().lock();
+				try { //No change is in progress: the copy of the term starts at the switch of journals
+					loadedTerm.startCapture();
+					journal = next;
+				} finally {
+					changeLock.writeLock().unlock();
+				}
+				pendingSnapshot = TermSnapshotCodec.encode(loadedTerm.finishCapture());
+				savePendingSnapshot();
+			}
+		} finally {
+			COMPACT_JOURNAL.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Saves the snapshot the current journal applies to, then lets the current journal replace the one it was started from.
+	 * Must be called while holding compactionLock, the snapshot stays pending when it cannot be saved.
+	 */
+	private void savePendingSnapshot() {
+		journal.setBaseChecksum(TermJournal.checksum(pendingSnapshot));
+		writeToFileAtomically(snapshotFileName, pendingSnapshot);
+		journal.replacePredecessor();
+		pendingSnapshot = null;
+	}
+	
+	/**
+	 * Compacts the journal periodically on a background thread
+	 * 
+	 * @param periodMillis Time between two compactions
+	 */
+	public synchronized void startJournalCompaction(long periodMillis) {
+		if(journal == null) throw new RuntimeException("Changes to the loaded term are not journaled");
+		if(compactor != null) return;
+		compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "journal-compactor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		compactor.scheduleWithFixedDelay(() -> {
+			try {
+				compactJournal();
+			} catch (RuntimeException e) { //Reported, the next compaction may succeed
+				System.err.println(String.format("Unable to compact the journal, message: '%s'", e.getMessage()));
+			}
+		}, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Stops the compaction of the journal and closes it, if any
+	 */
+	public void close() {
+		ScheduledExecutorService compactor;
+		synchronized (this) {
+			compactor = this.compactor;
+			this.compactor = null;
+		}
+		if(compactor != null) {
+			compactor.shutdown();
+			try {
+				compactor.awaitTermination(1, TimeUnit.MINUTES); //Lets a compaction in progress complete
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if(journal != null) journal.close();
+	}
+	
+	/**
+	 * Makes a change to the courses of the loaded term, recorded in the journal, if any, once checked and before being applied:
+	 * a change that cannot be recorded is not applied. No other change runs meanwhile, the caller waits until its change is on disk.
+	 * 
+	 * @param change Makes the change given the journal (null when changes are not journaled), returns the sequence number of its record
+	 */
+	private void change(ToLongFunction<TermJournal> change) {
+		long sequence;
+		TermJournal target;
+		changeLock.writeLock().lock();
+		try {
+			target = journal; //The journal may be replaced by a compaction once the lock is released
+			sequence = change.applyAsLong(target);
+		} finally {
+			changeLock.writeLock().unlock();
+		}
+		sync(target, sequence);
+	}
+	
+	/**
+	 * Waits until a change is on disk, called once the change lock is released.
+	 * Changes to a course are made while holding the read lock, inline rather than through a callback so that they allocate nothing.
+	 * 
+	 * @param target Journal the change was recorded in, null when changes are not journaled
+	 * @param sequence Sequence number of the record of the change
+	 */
+	private static void sync(TermJournal target, long sequence) {
+		if(target != null) target.sync(sequence);
 	}
 	
 	/**
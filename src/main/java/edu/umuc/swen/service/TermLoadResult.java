@@ -0,0 +1,78 @@
+package edu.umuc.swen.service;
+
+import java.util.concurrent.TimeUnit;
+
+import edu.umuc.swen.domain.Term;
+
+/**
+ * Outcome of loading one term file: the term, or the error that prevented loading it, and the time it took
+ * 
+ * @author ezerbo
+ *
+ */
+public class TermLoadResult {
+	
+	private final String fileName;
+	
+	/**
+	 * The loaded term, null when loading failed
+	 */
+	private final Term term;
+	
+	/**
+	 * Error that prevented loading the term, null when loading succeeded
+	 */
+	private final RuntimeException error;
+	
+	private final long elapsedNanos;
+	
+	private TermLoadResult(String fileName, Term term, RuntimeException error, long elapsedNanos) {
+		this.fileName = fileName;
+		this.term = term;
+		this.error = error;
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	static TermLoadResult success(String fileName, Term term, long elapsedNanos) {
+		return new TermLoadResult(fileName, term, null, elapsedNanos);
+	}
+	
+	static TermLoadResult failure(String fileName, RuntimeException error, long elapsedNanos) {
+		return new TermLoadResult(fileName, null, error, elapsedNanos);
+	}
+	
+	/**
+	 * @return indicator
+	 */
+	public boolean isSuccessful() {
+		return error == null;
+	}
+	
+	public String getFileName() {
+		return fileName;
+	}
+	
+	public Term getTerm() {
+		return term;
+	}
+	
+	public RuntimeException getError() {
+		return error;
+	}
+	
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+	
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+	}
+	
+	@Override
+	public String toString() {
+		return isSuccessful()
+				? String.format("%s: loaded term %s in %s ms", fileName, term.getTermCode(), getElapsedMillis())
+				: String.format("%s: failed in %s ms, message: '%s'", fileName, getElapsedMillis(), error.getMessage());
+	}
+	
+}
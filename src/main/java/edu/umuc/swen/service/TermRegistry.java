@@ -0,0 +1,217 @@
+package edu.umuc.swen.service;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import edu.umuc.swen.domain.Term;
+
+/**
+ * Registry of the terms served by a JVM, keyed by term code.
+ * Terms registered with a file are loaded on first access and unloaded once idle, changes made through
+ * {@link #modify(String, Consumer)} are saved back to the term's file before it is unloaded.
+ * Lookups of loaded terms do not lock, loading, modifying and unloading a term lock that term only.
+ *
+ * @author ezerbo
+ *
+ */
+public class TermRegistry {
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers a term that is loaded from a file on first access
+	 *
+	 * @param termCode Code of the term
+	 * @param fileName File to load term data from
+	 * @throws RuntimeException When a term is already registered with the same code
+	 */
+	public void register(String termCode, String fileName) {
+		Objects.requireNonNull(fileName, "fileName");
+		putEntry(termCode, new Entry(termCode, fileName, null));
+	}
+
+	/**
+	 * Registers a term that is already loaded, such a term is never unloaded
+	 *
+	 * @param term The term
+	 * @throws RuntimeException When a term is already registered with the same code
+	 */
+	public void add(Term term) {
+		add(term, null);
+	}
+
+	/**
+	 * Registers a term that is already loaded from a file, it is unloaded and loaded again like registered terms
+	 *
+	 * @param term The term
+	 * @param fileName File the term was loaded from, null when the term must never be unloaded
+	 * @throws RuntimeException When a term is already registered with the same code
+	 */
+	public void add(Term term, String fileName) {
+		putEntry(term.getTermCode(), new Entry(term.getTermCode(), fileName, term));
+	}
+
+	/**
+	 * Returns a term, loading it when it is not loaded yet.
+	 * The term must not be changed directly, use {@link #modify(String, Consumer)} instead.
+	 *
+	 * @param termCode Code of the term
+	 * @return term
+	 * @throws RuntimeException When no term is registered with 'termCode'
+	 */
+	public Term get(String termCode) {
+		Entry entry = getEntry(termCode);
+		Term term = entry.term;
+		if(term == null) {
+			synchronized (entry) {
+				term = entry.load();
+			}
+		}
+		entry.lastAccess = System.nanoTime();
+		return term;
+	}
+
+	/**
+	 * Reads a value from a term
+	 *
+	 * @param termCode Code of the term
+	 * @param reader Reads the value from the term
+	 * @return the value read
+	 */
+	public <T> T read(String termCode, Function<Term, T> reader) {
+		return reader.apply(get(termCode));
+	}
+
+	/**
+	 * Changes a term, the term cannot be unloaded while it is being changed
+	 *
+	 * @param termCode Code of the term
+	 * @param change Change to apply to the term
+	 */
+	public void modify(String termCode, Consumer<Term> change) {
+		Entry entry = getEntry(termCode);
+		synchronized (entry) {
+			Term term = entry.load();
+			entry.modified = true;
+			entry.lastAccess = System.nanoTime();
+			change.accept(term);
+		}
+	}
+
+	/**
+	 * Unloads the terms that have not been accessed for a while, modified terms are saved to their file first.
+	 * Terms that were not loaded from a file stay loaded.
+	 *
+	 * @param maxIdleMillis Time after which a term that is not accessed is unloaded
+	 * @return the number of terms unloaded
+	 */
+	public int unloadIdleTerms(long maxIdleMillis) {
+		long now = System.nanoTime();
+		int unloaded = 0;
+		for(Entry entry : entries.values()) {
+			if(entry.fileName == null || entry.term == null) continue;
+			if(now - entry.lastAccess < TimeUnit.MILLISECONDS.toNanos(maxIdleMillis)) continue;
+			synchronized (entry) {
+				if(entry.term == null || now - entry.lastAccess < TimeUnit.MILLISECONDS.toNanos(maxIdleMillis)) continue;
+				if(entry.modified) entry.term.saveToFileAtomically(entry.fileName);
+				entry.modified = false;
+				entry.term = null;
+				unloaded++;
+			}
+		}
+		return unloaded;
+	}
+
+	/**
+	 * @param termCode Code of the term
+	 * @return indicator
+	 */
+	public boolean isLoaded(String termCode) {
+		Entry entry = entries.get(termCode);
+		return entry != null && entry.term != null;
+	}
+
+	/**
+	 * @param termCode Code of the term
+	 * @return indicator
+	 */
+	public boolean contains(String termCode) {
+		return entries.containsKey(termCode);
+	}
+
+	/**
+	 * @return the codes of the registered terms
+	 */
+	public Set<String> getTermCodes() {
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+
+	private void putEntry(String termCode, Entry entry) {
+		if(entries.putIfAbsent(termCode, entry) != null) {
+			throw new RuntimeException(String.format("A term is already registered with code : %s", termCode));
+		}
+	}
+
+	private Entry getEntry(String termCode) {
+		Entry entry = entries.get(termCode);
+		if(entry == null) throw new RuntimeException(String.format("No term registered with code : %s", termCode));
+		return entry;
+	}
+
+	/**
+	 * A registered term and the file it is loaded from
+	 */
+	private static class Entry {
+
+		private final String termCode;
+
+		/**
+		 * File the term is loaded from, null when the term was added already loaded
+		 */
+		private final String fileName;
+
+		/**
+		 * The term, null when it is not loaded
+		 */
+		private volatile Term term;
+
+		/**
+		 * Last time (System.nanoTime()) the term was accessed
+		 */
+		private volatile long lastAccess = System.nanoTime();
+
+		/**
+		 * Whether the term was modified since it was loaded
+		 */
+		private boolean modified;
+
+		private Entry(String termCode, String fileName, Term term) {
+			this.termCode = termCode;
+			this.fileName = fileName;
+			this.term = term;
+		}
+
+		/**
+		 * Loads the term unless it is already loaded, must be called while holding this entry's lock
+		 *
+		 * @return term
+		 */
+		private Term load() {
+			if(term != null) return term;
+			Term loaded = new Term(fileName);
+			if(!termCode.equals(loaded.getTermCode())) {
+				throw new RuntimeException(String.format("File '%s' holds term '%s', expected term '%s'", fileName, loaded.getTermCode(), termCode));
+			}
+			lastAccess = System.nanoTime();
+			term = loaded;
+			return loaded;
+		}
+	}
+
+}
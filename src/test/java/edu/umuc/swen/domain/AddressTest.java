@@ -1,6 +1,9 @@
 package edu.umuc.swen.domain;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -28,4 +31,15 @@ public class AddressTest {
 		assertEquals("UK", address.getState());
 		assertEquals("188000", address.getZipCode());
 	}
+	
+	@Test
+	public void equalAddressesShareCanonicalInstance() {
+		Address address = new Address("221-B", "Baker Street", "London", "UK", "188000");
+		Address same = new Address(formattedValue);
+		assertEquals(address, same);
+		assertEquals(address.hashCode(), same.hashCode());
+		assertNotEquals(address, new Address("221-C", "Baker Street", "London", "UK", "188000"));
+		assertSame(Address.canonical(address), Address.canonical(same));
+		assertNull(Address.canonical(null));
+	}
 }
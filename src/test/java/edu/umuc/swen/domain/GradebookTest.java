@@ -0,0 +1,115 @@
+package edu.umuc.swen.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class GradebookTest {
+
+	@Test
+	public void setGpaReplacesPreviousGpaAndKeepsInsertionOrder() {
+		Gradebook gradebook = new Gradebook();
+		gradebook.setGpa(2, 3.0);
+		gradebook.setGpa(1, 4.0);
+		gradebook.setGpa(2, 3.5);
+		assertEquals(2, gradebook.size());
+		assertEquals(new Double(3.5), gradebook.get(2));
+		assertNull(gradebook.get(3));
+		assertEquals(2, gradebook.studentIdAt(0));
+		assertEquals(1, gradebook.studentIdAt(1));
+		assertEquals(3.75, gradebook.average(), 0);
+	}
+
+	@Test
+	public void behavesLikeHashMapWhenGrowing() {
+		Gradebook gradebook = new Gradebook();
+		Map<Integer, Double> expected = new HashMap<>();
+		for(int i = 0; i < 1000; i++) {
+			int studentId = (i * 7919) % 500;
+			gradebook.setGpa(studentId, i / 250.0);
+			expected.put(studentId, i / 250.0);
+		}
+		assertEquals(expected, gradebook);
+		assertEquals(expected.values().stream().mapToDouble(Double::doubleValue).average().getAsDouble(), gradebook.average(), 1e-9);
+	}
+
+	@Test
+	public void statisticsFollowReplacedGpas() {
+		Gradebook gradebook = new Gradebook();
+		assertEquals(0, gradebook.min(), 0);
+		assertEquals(0, gradebook.max(), 0);
+		assertEquals(0, gradebook.variance(), 0);
+		gradebook.setGpa(1, 2.0);
+		gradebook.setGpa(2, 4.0);
+		gradebook.setGpa(3, 3.0);
+		assertEquals(2.0, gradebook.min(), 0);
+		assertEquals(4.0, gradebook.max(), 0);
+		assertEquals(2.0 / 3, gradebook.variance(), 1e-9);
+		gradebook.setGpa(1, 3.5); //Replaces the minimum
+		gradebook.setGpa(2, 3.0); //Replaces the maximum
+		assertEquals(3.0, gradebook.min(), 0);
+		assertEquals(3.5, gradebook.max(), 0);
+		assertEquals(9.5 / 3, gradebook.average(), 1e-9);
+		gradebook.setGpa(3, 1.0);
+		assertEquals(1.0, gradebook.min(), 0);
+	}
+
+	@Test
+	public void statisticsMatchRecomputedValues() {
+		Gradebook gradebook = new Gradebook();
+		for(int i = 0; i < 1000; i++) gradebook.setGpa((i * 7919) % 300, (i % 17) / 4.0);
+		double[] gpas = gradebook.values().stream().mapToDouble(Double::doubleValue).toArray();
+		double average = Arrays.stream(gpas).average().getAsDouble();
+		double variance = Arrays.stream(gpas).map(gpa -> (gpa - average) * (gpa - average)).sum() / gpas.length;
+		assertEquals(average, gradebook.average(), 1e-9);
+		assertEquals(variance, gradebook.variance(), 1e-9);
+		assertEquals(Arrays.stream(gpas).min().getAsDouble(), gradebook.min(), 0);
+		assertEquals(Arrays.stream(gpas).max().getAsDouble(), gradebook.max(), 0);
+	}
+
+	@Test
+	public void varianceOfCloseGpasKeepsItsPrecision() {
+		Gradebook gradebook = new Gradebook();
+		for(int i = 0; i < 1000; i++) gradebook.setGpa(i, (i % 2 == 0) ? 3.3000001 : 3.2999999);
+		assertEquals(1e-14, gradebook.variance(), 1e-17);
+		for(int i = 0; i < 1000; i += 2) gradebook.setGpa(i, 3.2999999); //Every GPA equal once replaced
+		assertEquals(0, gradebook.variance(), 1e-17);
+	}
+
+	@Test
+	public void setGpasMatchesOneGpaAtATime() {
+		Gradebook bulk = new Gradebook();
+		Gradebook single = new Gradebook();
+		bulk.setGpa(5, 1.0);
+		single.setGpa(5, 1.0);
+		int[] studentIds = new int[40];
+		double[] gpas = new double[40];
+		for(int i = 0; i < studentIds.length; i++) {
+			studentIds[i] = i;
+			gpas[i] = (i % 9) / 2.0;
+			single.setGpa(studentIds[i], gpas[i]);
+		}
+		bulk.setGpas(studentIds, gpas);
+		assertEquals(single, bulk);
+		assertEquals(40, bulk.size());
+		assertEquals(single.average(), bulk.average(), 1e-9);
+		assertEquals(single.variance(), bulk.variance(), 1e-9);
+		assertEquals(0, bulk.min(), 0);
+		assertEquals(4.0, bulk.max(), 0);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void mapViewIsReadOnly() {
+		new Gradebook().put(1, 4.0);
+	}
+
+}
@@ -106,6 +106,16 @@ public class HybridCourseTest {
 		assertEquals(3.5, hybridCourse.calculateAverageGpa(), 0);
 	}
 	
+	@Test
+	public void getGpaStatisticsOfParsedGradebook() {
+		GpaStatistics statistics = new HybridCourse(formattedValue).getGpaStatistics();
+		assertEquals(2, statistics.getCount());
+		assertEquals(3.5, statistics.getAverage(), 0);
+		assertEquals(3.0, statistics.getMin(), 0);
+		assertEquals(4.0, statistics.getMax(), 0);
+		assertEquals(0.25, statistics.getVariance(), 1e-9);
+	}
+	
 	@Test
 	public void changeStudentGpaThrowsException() {
 		expectedException.expect(RuntimeException.class);
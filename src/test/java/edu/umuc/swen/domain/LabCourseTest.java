@@ -2,6 +2,8 @@ package edu.umuc.swen.domain;
 
 import static edu.umuc.swen.domain.util.ParsingUtil.parseDate;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Date;
 import java.util.Map;
@@ -138,6 +140,22 @@ public class LabCourseTest {
 		course.addStudent(new Student(11, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()));
 	}
 	
+	@Test
+	public void removeStudentFreesSeat() {
+		Location classroomLocation = new Location("2E", "1019", getAddress());
+		Location labRoomLocation = new Location("5E", "1019", getAddress());
+		LabCourse course = new LabCourse(1, "MATH101", new Date(System.currentTimeMillis() + 86400000), new Date(System.currentTimeMillis() + 2 * 86400000), "T TH",
+				"6:00PM - 6:30PM", "FL2019", classroomLocation, labRoomLocation);
+		for(int i = 1; i <= 10; i++) {
+			course.addStudent(new Student(i, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()));
+		}
+		assertTrue(course.isCourseFull());
+		course.removeStudent(10);
+		assertFalse(course.isCourseFull());
+		course.addStudent(new Student(11, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()));
+		assertEquals(10, course.getStudents().size());
+	}
+	
 	@Test
 	public void loadStudent() {
 		Address address = new Address("221-B", "Baker Street", "London", "UK", "188000");
@@ -1,6 +1,8 @@
 package edu.umuc.swen.domain;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -35,4 +37,14 @@ public class LocationTest {
 		assertEquals("188000", address.getZipCode());
 	}
 	
+	@Test
+	public void equalLocationsShareCanonicalInstance() {
+		Location location = new Location("10", "Holmes", new Address("221-B", "Baker Street", "London", "UK", "188000"));
+		Location same = new Location(formattedValue);
+		assertEquals(location, same);
+		assertNotEquals(location, new Location("11", "Holmes", location.getAddress()));
+		assertSame(Location.canonical(location), Location.canonical(same));
+		assertSame(location.getAddress(), same.getAddress()); //Addresses of locations are canonical
+	}
+	
 }
@@ -1,12 +1,15 @@
 package edu.umuc.swen.domain;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import java.util.Date;
 import java.util.Map;
 
 import org.junit.Test;
 
+import edu.umuc.swen.error.StudentNotFoundException;
+
 /**
  * @author ezerbo
  *
@@ -75,6 +78,37 @@ public class OnlineCourseTest {
 		assertEquals("Days: T TH, Times: 6:00PM - 6:30PM, Location : https://swen-646.umuc.edu", onlineCourse.generateSchedule());
 	}
 	
+	@Test
+	public void changeStudentGpasChecksEveryStudentFirst() {
+		OnlineCourse course = new OnlineCourse(formattedValue);
+		try {
+			course.changeStudentGpas(new int[] {1, 3}, new double[] {2.0, 2.0});
+			fail("Student 3 is not in the course");
+		} catch (StudentNotFoundException e) {
+			assertEquals("No student found with id: 3", e.getMessage());
+		}
+		assertEquals(3.5, course.calculateAverageGpa(), 0); //No GPA changed
+		course.changeStudentGpas(new int[] {1, 2}, new double[] {2.0, 2.5});
+		assertEquals(2.25, course.calculateAverageGpa(), 0);
+		assertEquals(2.0, course.getGpaStatistics().getMin(), 0);
+	}
+	
+	@Test
+	public void studentsCannotBeChangedBypassingTheCourse() {
+		OnlineCourse course = new OnlineCourse(formattedValue);
+		try {
+			course.getStudents().add(new Student(3, "John", "Watson", 3.2, "john.watson@bakerstreet.com", getAddress()));
+			fail("Students are added through the course");
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			course.getStudents().remove(0);
+			fail("Students are removed through the course");
+		} catch (UnsupportedOperationException e) {
+		}
+		assertEquals(2, course.getStudents().size());
+	}
+	
 	private OnlineCourse getOnlineCourse() {
 		return new OnlineCourse(1, "https://swen-646.umuc.edu", "MATH101", new Date(1555804800000L),
 				new Date(1558396800000L), "T TH", "FL2019", "6:00PM - 6:30PM");
@@ -0,0 +1,72 @@
+package edu.umuc.swen.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class RosterTest {
+
+	@Test
+	public void removeIdRemovesEveryStudentWithThatIdAndKeepsOrder() {
+		Roster roster = new Roster();
+		roster.add(getStudent(1));
+		roster.add(getStudent(2));
+		roster.add(getStudent(1));
+		roster.add(getStudent(3));
+		assertTrue(roster.containsId(1));
+		assertEquals(2, roster.removeId(1));
+		assertFalse(roster.containsId(1));
+		assertEquals(2, roster.size());
+		assertEquals(2, roster.get(0).getId());
+		assertEquals(3, roster.get(1).getId());
+	}
+
+	@Test
+	public void behavesLikeArrayList() {
+		Roster roster = new Roster();
+		List<Student> expected = new ArrayList<>();
+		Random random = new Random(646);
+		for(int i = 0; i < 20000; i++) {
+			int studentId = random.nextInt(50);
+			switch (random.nextInt(4)) {
+			case 0:
+			case 1:
+				Student student = getStudent(studentId);
+				roster.add(student);
+				expected.add(student);
+				break;
+			case 2:
+				roster.removeId(studentId);
+				expected.removeIf(s -> s.getId() == studentId);
+				break;
+			default:
+				Iterator<Student> iterator = roster.iterator();
+				while(iterator.hasNext()) {
+					if(iterator.next().getId() == studentId) iterator.remove();
+				}
+				expected.removeIf(s -> s.getId() == studentId);
+				break;
+			}
+			assertEquals(expected.size(), roster.size());
+			assertEquals(expected.stream().anyMatch(s -> s.getId() == studentId), roster.containsId(studentId));
+		}
+		assertEquals(expected, roster);
+	}
+
+	private Student getStudent(int id) {
+		Address address = new Address("221-B", "Baker Street", "London", "UK", "188000");
+		return new Student(id, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", address);
+	}
+
+}
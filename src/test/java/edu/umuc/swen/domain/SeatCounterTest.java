@@ -0,0 +1,70 @@
+package edu.umuc.swen.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class SeatCounterTest {
+
+	@Test
+	public void reserveTakesAllSeatsOrNone() {
+		SeatCounter seats = new SeatCounter(10);
+		assertTrue(seats.reserve(8));
+		assertFalse(seats.reserve(3));
+		assertEquals(8, seats.taken());
+		assertTrue(seats.reserve(2));
+		assertTrue(seats.isFull());
+	}
+
+	@Test
+	public void releaseFreesSeats() {
+		SeatCounter seats = new SeatCounter(2);
+		assertTrue(seats.reserve(2));
+		assertFalse(seats.reserve(1));
+		seats.release(1);
+		assertFalse(seats.isFull());
+		assertTrue(seats.reserve(1));
+	}
+
+	@Test
+	public void concurrentReservationsNeverExceedCapacity() throws Exception {
+		SeatCounter seats = new SeatCounter(20);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> futures = new ArrayList<>();
+		for(int i = 0; i < 8; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				int reserved = 0;
+				for(int j = 0; j < 1000; j++) {
+					if(seats.reserve(1)) reserved++;
+					if(j % 2 == 0 && reserved > 0) { //Drops a seat now and then
+						seats.release(1);
+						reserved--;
+					}
+				}
+				return reserved;
+			}));
+		}
+		start.countDown();
+		int reserved = 0;
+		for(Future<Integer> future : futures) reserved += future.get();
+		executor.shutdown();
+		assertEquals(reserved, seats.taken());
+		assertTrue(seats.taken() <= 20);
+	}
+
+}
@@ -1,6 +1,7 @@
 package edu.umuc.swen.domain;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -40,4 +41,13 @@ public class StudentTest {
 		assertEquals("188000", address.getZipCode());
 	}
 	
+	@Test
+	public void studentsAtTheSameAddressShareIt() {
+		Student student = new Student(formattedValue);
+		Student neighbor = new Student(2, "John", "Watson", 3.5, "john.watson@bekerstreet.com",
+				new Address("221-B", "Baker Street", "London", "UK", "188000"));
+		assertSame(student.getMailingAddress(), student.getMailingAddress()); //Not copied on every access
+		assertSame(student.getMailingAddress(), neighbor.getMailingAddress());
+	}
+	
 }
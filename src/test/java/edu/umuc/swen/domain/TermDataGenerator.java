@@ -0,0 +1,257 @@
+package edu.umuc.swen.domain;
+
+import static edu.umuc.swen.domain.util.ParsingUtil.parseDate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic terms for load and scale testing, the same settings and seed always give the same term.
+ * <p>
+ * Students are drawn from a population shared by all courses, so that a student takes several courses like in a real institution,
+ * and their mailing addresses are drawn from a pool of distinct addresses. Course capacities are not enforced,
+ * so that courses larger than a real section can be generated. Generated terms are saved like any other term,
+ * in the text format ({@link Term#saveToFile(String)}) or the binary format ({@link Term#saveSnapshot(String)}).
+ * <p>
+ * Example: {@code new TermDataGenerator(42).courses(200, 100, 50).studentsPerCourse(20).generate().saveToFile("term.txt")}
+ *
+ * @author ezerbo
+ *
+ */
+public class TermDataGenerator {
+
+	private final static String[] FIRST_NAMES = {"Ada", "Alan", "Barbara", "Claude", "Donald", "Edsger", "Frances", "Grace", "John", "Margaret"};
+	private final static String[] LAST_NAMES = {"Allen", "Dijkstra", "Hamilton", "Hopper", "Knuth", "Liskov", "Lovelace", "McCarthy", "Shannon", "Turing"};
+	private final static String[] STREETS = {"Baker Street", "Adelphi Road", "University Boulevard", "Main Street", "College Avenue"};
+	private final static String[] CITIES = {"Adelphi", "College Park", "Hyattsville", "Largo", "Silver Spring"};
+	private final static String[] MEETING_DAYS = {"M W", "T TH", "F", "S"};
+	private final static String[] MEETING_TIMES = {"9:00AM - 10:30AM", "1:00PM - 2:30PM", "6:00PM - 7:30PM", "8:00PM - 9:30PM"};
+
+	private final long seed;
+
+	private String termCode = "FL2099";
+
+	private Date startDate = parseDate("09/01/2099");
+
+	private Date endDate = parseDate("12/15/2099");
+
+	private int onlineCourses = 2;
+
+	private int hybridCourses = 2;
+
+	private int labCourses = 2;
+
+	private int studentsPerCourse = 20;
+
+	/**
+	 * Share of the students of a course that have a grade, between 0 and 1
+	 */
+	private double gradebookDensity = 1;
+
+	/**
+	 * Number of distinct students, 0 to draw as many as there are seats
+	 */
+	private int studentPopulation;
+
+	/**
+	 * Number of distinct mailing addresses
+	 */
+	private int addresses = 1000;
+
+	/**
+	 * @param seed Seed of the generated data
+	 */
+	public TermDataGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @param termCode Code of the term, FL2099 by default
+	 * @return this generator
+	 */
+	public TermDataGenerator termCode(String termCode) {
+		this.termCode = termCode;
+		return this;
+	}
+
+	/**
+	 * @param startDate Start date of every course, 09/01/2099 by default
+	 * @param endDate End date of every course, 12/15/2099 by default
+	 * @return this generator
+	 */
+	public TermDataGenerator dates(Date startDate, Date endDate) {
+		this.startDate = startDate;
+		this.endDate = endDate;
+		return this;
+	}
+
+	/**
+	 * @param online Number of online courses
+	 * @param hybrid Number of hybrid courses
+	 * @param lab Number of lab courses
+	 * @return this generator
+	 */
+	public TermDataGenerator courses(int online, int hybrid, int lab) {
+		if(online < 0 || hybrid < 0 || lab < 0) throw new RuntimeException("The number of courses cannot be negative");
+		this.onlineCourses = online;
+		this.hybridCourses = hybrid;
+		this.labCourses = lab;
+		return this;
+	}
+
+	/**
+	 * @param studentsPerCourse Number of students of each course
+	 * @return this generator
+	 */
+	public TermDataGenerator studentsPerCourse(int studentsPerCourse) {
+		if(studentsPerCourse < 0) throw new RuntimeException("The number of students cannot be negative");
+		this.studentsPerCourse = studentsPerCourse;
+		return this;
+	}
+
+	/**
+	 * @param gradebookDensity Share of the students of a course that have a grade, between 0 and 1
+	 * @return this generator
+	 */
+	public TermDataGenerator gradebookDensity(double gradebookDensity) {
+		if(gradebookDensity < 0 || gradebookDensity > 1) throw new RuntimeException(String.format("Invalid gradebook density : %s", gradebookDensity));
+		this.gradebookDensity = gradebookDensity;
+		return this;
+	}
+
+	/**
+	 * @param studentPopulation Number of distinct students, at least the number of students per course
+	 * @return this generator
+	 */
+	public TermDataGenerator studentPopulation(int studentPopulation) {
+		this.studentPopulation = studentPopulation;
+		return this;
+	}
+
+	/**
+	 * @param addresses Number of distinct mailing addresses, at least 1
+	 * @return this generator
+	 */
+	public TermDataGenerator addresses(int addresses) {
+		if(addresses < 1) throw new RuntimeException("At least one address is required");
+		this.addresses = addresses;
+		return this;
+	}
+
+	/**
+	 * Generates a term, courses of each type are interleaved and numbered from 1
+	 *
+	 * @return the term
+	 */
+	public Term generate() {
+		Random random = new Random(seed);
+		int courseCount = onlineCourses + hybridCourses + labCourses;
+		int population = (studentPopulation > 0) ? studentPopulation : Math.max(1, courseCount * studentsPerCourse);
+		if(population < studentsPerCourse)
+			throw new RuntimeException(String.format("A population of %s students cannot fill courses of %s students", population, studentsPerCourse));
+		Address[] addressPool = new Address[addresses];
+		for(int i = 0; i < addressPool.length; i++) addressPool[i] = address(random);
+		Student[] students = new Student[population];
+		for(int i = 0; i < students.length; i++) students[i] = student(i + 1, addressPool[random.nextInt(addressPool.length)], random);
+		List<Course> courses = new ArrayList<>(courseCount);
+		for(int type : courseTypes(random)) {
+			Course course = course(courses.size() + 1, type, addressPool, random);
+			enroll(course, students, random);
+			courses.add(course);
+		}
+		return new Term(termCode, courses);
+	}
+
+	/**
+	 * @return the type of each course (0: online, 1: hybrid, 2: lab), shuffled
+	 */
+	private List<Integer> courseTypes(Random random) {
+		List<Integer> types = new ArrayList<>();
+		for(int i = 0; i < onlineCourses; i++) types.add(0);
+		for(int i = 0; i < hybridCourses; i++) types.add(1);
+		for(int i = 0; i < labCourses; i++) types.add(2);
+		Collections.shuffle(types, random);
+		return types;
+	}
+
+	private Course course(int id, int type, Address[] addressPool, Random random) {
+		String name = "SWEN" + (100 + random.nextInt(900));
+		String meetingDays = MEETING_DAYS[random.nextInt(MEETING_DAYS.length)];
+		String meetingTimes = MEETING_TIMES[random.nextInt(MEETING_TIMES.length)];
+		switch (type) {
+		case 0:
+			return new OnlineCourse(id, url(name, id), name, startDate, endDate, meetingDays, termCode, meetingTimes);
+		case 1:
+			return new HybridCourse(id, name, startDate, endDate, meetingDays, meetingTimes, termCode, url(name, id), location(addressPool, random));
+		default:
+			return new LabCourse(id, name, startDate, endDate, meetingDays, meetingTimes, termCode, location(addressPool, random), location(addressPool, random));
+		}
+	}
+
+	/**
+	 * Adds distinct students of the population to a course, then grades the first of them
+	 */
+	private void enroll(Course course, Student[] population, Random random) {
+		int[] picked = random.ints(0, population.length).distinct().limit(studentsPerCourse).toArray();
+		int graded = (int) Math.round(picked.length * gradebookDensity);
+		for(int i = 0; i < picked.length; i++) {
+			Student student = population[picked[i]];
+			course.restoreStudent(student);
+			if(i < graded) course.changeStudentGpa(student.getId(), gpa(random));
+		}
+	}
+
+	private Student student(int id, Address address, Random random) {
+		String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+		String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+		return new Student(id, firstName, lastName, gpa(random),
+				String.format("%s.%s%s@umuc.edu", firstName, lastName, id).toLowerCase(), address);
+	}
+
+	private Address address(Random random) {
+		return new Address(String.valueOf(1 + random.nextInt(9999)), STREETS[random.nextInt(STREETS.length)],
+				CITIES[random.nextInt(CITIES.length)], "MD", String.valueOf(20700 + random.nextInt(100)));
+	}
+
+	private Location location(Address[] addressPool, Random random) {
+		return new Location(String.valueOf(100 + random.nextInt(900)), "Building " + (1 + random.nextInt(20)),
+				addressPool[random.nextInt(addressPool.length)]);
+	}
+
+	private static String url(String name, int id) {
+		return String.format("https://%s-%s.umuc.edu", name.toLowerCase(), id);
+	}
+
+	/**
+	 * @return a GPA between 0.0 and 4.0, with one decimal
+	 */
+	private static double gpa(Random random) {
+		return random.nextInt(41) / 10.0;
+	}
+
+	/**
+	 * Writes a generated term to a file.
+	 * Arguments: file, online courses, hybrid courses, lab courses, students per course, [seed], [--binary]
+	 *
+	 * @param args Command line arguments
+	 */
+	public static void main(String[] args) {
+		if(args.length < 5) {
+			System.out.println("Usage: TermDataGenerator <file> <online courses> <hybrid courses> <lab courses> <students per course> [seed] [--binary]");
+			return;
+		}
+		boolean binary = args[args.length - 1].equals("--binary");
+		int arguments = binary ? args.length - 1 : args.length;
+		long seed = (arguments > 5) ? Long.parseLong(args[5]) : 42;
+		Term term = new TermDataGenerator(seed)
+				.courses(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]))
+				.studentsPerCourse(Integer.parseInt(args[4]))
+				.generate();
+		if(binary) term.saveSnapshot(args[0]);
+		else term.saveToFile(args[0]);
+	}
+
+}
@@ -0,0 +1,77 @@
+package edu.umuc.swen.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class TermDataGeneratorTest {
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void generateIsDeterministic() {
+		String term = getGenerator(7).generate().toString();
+		assertEquals(term, getGenerator(7).generate().toString());
+		assertNotEquals(term, getGenerator(8).generate().toString());
+	}
+
+	@Test
+	public void generateHonorsSettings() {
+		Term term = getGenerator(7).generate();
+		assertEquals("SP2099", term.getTermCode());
+		assertEquals(30, term.getCourses().size());
+		assertEquals(15, term.getCourses().stream().filter(c -> c instanceof OnlineCourse).count());
+		assertEquals(10, term.getCourses().stream().filter(c -> c instanceof HybridCourse).count());
+		assertEquals(5, term.getCourses().stream().filter(c -> c instanceof LabCourse).count());
+		for(Course course : term.getCourses()) {
+			assertEquals(25, course.getStudents().size()); //Capacities are not enforced
+			assertEquals(20, course.getGradebook().size());
+			assertEquals(25, course.getStudents().stream().mapToInt(Student::getId).distinct().count());
+		}
+		assertEquals(30, term.getCourse(30).getId());
+	}
+
+	@Test
+	public void generatedTermIsReadBackInBothFormats() throws IOException {
+		Term term = getGenerator(7).generate();
+		File text = folder.newFile("term.txt");
+		File snapshot = folder.newFile("term.snapshot");
+		term.saveToFile(text.getPath());
+		term.saveSnapshot(snapshot.getPath());
+		assertEquals(term.toString(), new Term(text.getPath()).toString());
+		assertEquals(term.toString(), Term.loadSnapshot(snapshot.getPath()).toString());
+	}
+
+	@Test
+	public void generateThrowsExceptionWhenPopulationIsTooSmall() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("A population of 10 students cannot fill courses of 25 students");
+		getGenerator(7).studentPopulation(10).generate();
+	}
+
+	private TermDataGenerator getGenerator(long seed) {
+		return new TermDataGenerator(seed)
+				.termCode("SP2099")
+				.courses(15, 10, 5)
+				.studentsPerCourse(25)
+				.gradebookDensity(0.8)
+				.studentPopulation(200)
+				.addresses(50);
+	}
+
+}
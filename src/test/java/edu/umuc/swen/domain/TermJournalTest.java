@@ -0,0 +1,234 @@
+package edu.umuc.swen.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import edu.umuc.swen.domain.util.FileUtil;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class TermJournalTest {
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String termFileName = "./src/test/resources/test-data/term-data-unordered.txt";
+
+	@Test
+	public void replayAppliesRecordedChanges() {
+		String journalFileName = new File(folder.getRoot(), "term.journal").getPath();
+		Student student = new Student(9, "John", "Watson", 3.2, "john.watson@bakerstreet.com",
+				new Address("221-B", "Baker Street", "London", "UK", "188000"));
+		Course course = new OnlineCourse(7, "https://swen-603.umuc.edu", "SWEN603", new Date(System.currentTimeMillis() + 86400000),
+				new Date(System.currentTimeMillis() + 86400000), "M W", "SP2020", "6:00PM - 6:30PM");
+		try (TermJournal journal = new TermJournal(journalFileName)) {
+			journal.addStudentToCourse(student, 2);
+			journal.changeStudentGpa(9, 2, 2.9);
+			journal.removeStudentFromCourse(3, 3);
+			journal.removeCourse(1);
+			journal.sync(journal.addCourse(course));
+		}
+		Term term = new Term(termFileName);
+		try (TermJournal journal = new TermJournal(journalFileName)) {
+			assertEquals(5, journal.replay(term));
+		}
+		assertEquals(2, term.getCourse(2).getStudents().size());
+		assertEquals(3.4, term.calculateCourseAverageGpa(2), 1e-9);
+		assertEquals(0, term.getCourse(3).getStudents().size());
+		assertNull(term.findCourse(1));
+		assertEquals(course.toString(), term.getCourse(7).toString());
+	}
+
+	@Test
+	public void openDropsIncompleteRecord() throws IOException {
+		File file = new File(folder.getRoot(), "term.journal");
+		long size;
+		try (TermJournal journal = new TermJournal(file.getPath())) {
+			journal.sync(journal.changeStudentGpa(2, 2, 1.5));
+			size = journal.size();
+		}
+		Files.write(file.toPath(), new byte[] {0, 0, 0, 21, 1, 2, 3}, StandardOpenOption.APPEND); //Crash while appending
+		Term term = new Term(termFileName);
+		try (TermJournal journal = new TermJournal(file.getPath())) {
+			assertEquals(size, journal.size());
+			assertEquals(1, journal.replay(term));
+		}
+		assertEquals(1.5, term.calculateCourseAverageGpa(2), 0);
+	}
+
+	@Test
+	public void batchRecordsAreReplayedEntirelyOrNotAtAll() throws IOException {
+		File file = new File(folder.getRoot(), "term.journal");
+		long size;
+		try (TermJournal journal = new TermJournal(file.getPath())) {
+			journal.sync(journal.addStudentsToCourses(Arrays.asList(new Enrollment(getStudent(), 2), new Enrollment(getStudent(), 3))));
+			size = journal.size();
+			journal.sync(journal.changeStudentGpas(2, new int[] {2, 9}, new double[] {1.0, 2.0}));
+		}
+		Term term = new Term(termFileName);
+		try (TermJournal journal = new TermJournal(file.getPath())) {
+			assertEquals(2, journal.replay(term));
+		}
+		assertEquals(2, term.getCourse(3).getStudents().size());
+		assertEquals(1.0, term.getCourse(2).getStudentGPA(2), 0);
+		assertEquals(2.0, term.getCourse(2).getStudentGPA(9), 0);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 4); //Crash while appending the grades
+		}
+		term = new Term(termFileName);
+		try (TermJournal journal = new TermJournal(file.getPath())) {
+			assertEquals(size, journal.size());
+			assertEquals(1, journal.replay(term));
+		}
+		assertEquals(2, term.getCourse(2).getStudents().size());
+		assertEquals(3.9, term.getCourse(2).getStudentGPA(2), 0); //No grade of the column was replayed
+	}
+
+	@Test
+	public void recoverReplaysBothJournalsWhenSnapshotWasNotSaved() throws IOException {
+		File termFile = copyOfTermFile();
+		String journalFileName = new File(folder.getRoot(), "term.journal").getPath();
+		String snapshotFileName = new File(folder.getRoot(), "term.snapshot").getPath();
+		TermJournal journal = new TermJournal(journalFileName);
+		journal.changeStudentGpa(2, 2, 1.5);
+		TermJournal next = journal.startNext();
+		next.addStudentToCourse(getStudent(), 2);
+		next.setBaseChecksum(12345L); //Snapshot not saved: the term file does not match
+		next.syncAll();
+		next.close(); //Crash
+		journal.close();
+		Term term = new Term(termFile.getPath());
+		try (TermJournal recovered = TermJournal.recover(journalFileName, termFile.getPath(), snapshotFileName, term)) {
+			assertEquals(journalFileName, recovered.getFileName());
+		}
+		assertEquals(1.5, term.getCourse(2).getStudentGPA(2), 0);
+		assertEquals(2, term.getCourse(2).getStudents().size());
+		assertFalse(new File(journalFileName + TermJournal.NEXT_SUFFIX).exists());
+		term = Term.load(snapshotFileName); //Second restart: the previous journal was saved in the snapshot before being replaced
+		TermJournal.recover(journalFileName, snapshotFileName, snapshotFileName, term).close();
+		assertEquals(1.5, term.getCourse(2).getStudentGPA(2), 0);
+		assertEquals(2, term.getCourse(2).getStudents().size());
+	}
+
+	@Test
+	public void recoverSkipsJournalIncludedInSavedSnapshot() throws IOException {
+		File termFile = copyOfTermFile();
+		String journalFileName = new File(folder.getRoot(), "term.journal").getPath();
+		TermJournal journal = new TermJournal(journalFileName);
+		journal.addStudentToCourse(getStudent(), 2);
+		TermJournal next = journal.startNext();
+		Term snapshotTerm = new Term(termFile.getPath());
+		journal.replay(snapshotTerm);
+		ByteBuffer snapshot = TermSnapshotCodec.encode(snapshotTerm);
+		next.addStudentToCourse(getStudent(), 2);
+		next.setBaseChecksum(TermJournal.checksum(snapshot));
+		next.syncAll();
+		FileUtil.writeToFileAtomically(termFile.getPath(), snapshot);
+		next.close(); //Crash before the previous journal is replaced
+		journal.close();
+		Term term = Term.load(termFile.getPath());
+		TermJournal.recover(journalFileName, termFile.getPath(), termFile.getPath(), term).close();
+		assertEquals(3, term.getCourse(2).getStudents().size());
+		term = Term.load(termFile.getPath());
+		TermJournal.recover(journalFileName, termFile.getPath(), termFile.getPath(), term).close(); //Journal replaced: only its records are replayed
+		assertEquals(3, term.getCourse(2).getStudents().size());
+	}
+
+	@Test
+	public void replacePredecessorTakesItsFileName() {
+		String journalFileName = new File(folder.getRoot(), "term.journal").getPath();
+		TermJournal journal = new TermJournal(journalFileName);
+		journal.removeCourse(1);
+		TermJournal next = journal.startNext();
+		next.removeCourse(2);
+		next.replacePredecessor();
+		assertEquals(journalFileName, next.getFileName());
+		next.close();
+		Term term = new Term(termFileName);
+		try (TermJournal reopened = new TermJournal(journalFileName)) {
+			assertEquals(1, reopened.replay(term));
+		}
+		assertNull(term.findCourse(2));
+		assertEquals(1, term.getCourse(1).getId());
+	}
+
+	@Test
+	public void openVersion1JournalWithoutRecords() throws IOException {
+		File file = folder.newFile("term.journal");
+		Files.write(file.toPath(), ByteBuffer.allocate(8).putInt(TermJournal.MAGIC).putInt(1).array());
+		try (TermJournal journal = new TermJournal(file.getPath())) {
+			assertTrue(journal.isEmpty());
+			assertEquals(0, journal.replay(new Term(termFileName)));
+			journal.sync(journal.removeCourse(1));
+		}
+		Term term = new Term(termFileName);
+		try (TermJournal journal = new TermJournal(file.getPath())) {
+			assertEquals(1, journal.replay(term));
+		}
+		assertNull(term.findCourse(1));
+	}
+
+	@Test
+	public void openThrowsExceptionOnOtherFiles() throws IOException {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("is not a term journal");
+		File file = folder.newFile("term.txt");
+		Files.write(file.toPath(), "<term></term>".getBytes(StandardCharsets.UTF_8));
+		new TermJournal(file.getPath());
+	}
+
+	@Test
+	public void syncReturnsAtOnceForRecordsAlreadyOnDisk() {
+		try (TermJournal journal = new TermJournal(new File(folder.getRoot(), "term.journal").getPath())) {
+			long first = journal.removeCourse(1);
+			long second = journal.removeCourse(2);
+			assertTrue(second > first);
+			journal.sync(second);
+			journal.sync(first);
+			assertFalse(journal.size() == 8);
+		}
+	}
+
+	@Test
+	public void startNextThrowsExceptionWhenCompactionDidNotComplete() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("did not complete");
+		TermJournal journal = new TermJournal(new File(folder.getRoot(), "term.journal").getPath());
+		journal.startNext().startNext();
+	}
+
+	private File copyOfTermFile() throws IOException {
+		File file = new File(folder.getRoot(), "term.txt");
+		Files.copy(Paths.get(termFileName), file.toPath());
+		return file;
+	}
+
+	private Student getStudent() {
+		return new Student(9, "John", "Watson", 3.2, "john.watson@bakerstreet.com",
+				new Address("221-B", "Baker Street", "London", "UK", "188000"));
+	}
+
+}
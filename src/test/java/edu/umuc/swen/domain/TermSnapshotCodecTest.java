@@ -0,0 +1,106 @@
+package edu.umuc.swen.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class TermSnapshotCodecTest {
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void decodeReturnsEncodedTerm() {
+		Term term = new Term("./src/test/resources/test-data/term-data-unordered.txt");
+		ByteBuffer snapshot = TermSnapshotCodec.encode(term);
+		assertTrue(snapshot.remaining() < term.toString().getBytes(StandardCharsets.UTF_8).length / 2);
+		Term decoded = TermSnapshotCodec.decode(snapshot);
+		assertEquals(0, snapshot.remaining());
+		assertEquals(term.toString(), decoded.toString());
+		assertEquals(term.calculateCourseAverageGpa(2), decoded.calculateCourseAverageGpa(2), 0);
+		assertEquals(term.getCourse(1).getStartDate(), decoded.getCourse(1).getStartDate());
+	}
+
+	@Test
+	public void decodeKeepsNullValues() {
+		Course course = new OnlineCourse(1, null, "MATH101", null, new Date(0), "T TH", "FL2019", "6:00PM - 6:30PM");
+		Term decoded = TermSnapshotCodec.decode(TermSnapshotCodec.encode(new Term("FL2019", Arrays.asList(course))));
+		assertNull(((OnlineCourse) decoded.getCourse(1)).getUrl());
+		assertNull(decoded.getCourse(1).getStartDate());
+		assertEquals(new Date(0), decoded.getCourse(1).getEndDate());
+	}
+
+	@Test
+	public void encodeWhileCoursesAreAddedAndRemoved() throws Exception {
+		Term term = new Term("FL2019", Arrays.asList(new OnlineCourse(1, null, "MATH101", null, null, "T TH", "FL2019", "6:00PM - 6:30PM")));
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread changer = new Thread(() -> {
+			while(running.get()) {
+				term.restoreCourse(new OnlineCourse(2, null, "SWEN646", null, null, "M W", "FL2019", "6:00PM - 6:30PM"));
+				term.restoreCourseRemoval(2);
+			}
+		});
+		changer.start();
+		try {
+			for(int i = 0; i < 2000; i++) { //Every snapshot holds as many courses as it says
+				int courses = TermSnapshotCodec.decode(TermSnapshotCodec.encode(term)).getCourses().size();
+				assertTrue(courses == 1 || courses == 2);
+			}
+		} finally {
+			running.set(false);
+			changer.join();
+		}
+	}
+
+	@Test
+	public void saveSnapshotThenLoadSnapshot() throws IOException {
+		File file = folder.newFile("term.snapshot");
+		Term term = new Term("./src/test/resources/test-data/term-data.txt");
+		term.saveSnapshot(file.getPath());
+		assertEquals(term.toString(), Term.loadSnapshot(file.getPath()).toString());
+	}
+
+	@Test
+	public void decodeThrowsExceptionOnUnknownFormat() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("Not a term snapshot");
+		TermSnapshotCodec.decode(ByteBuffer.wrap("<term></term>".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void decodeThrowsExceptionOnUnsupportedVersion() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("Unsupported snapshot version : 99");
+		TermSnapshotCodec.decode((ByteBuffer) ByteBuffer.allocate(8).putInt(TermSnapshotCodec.MAGIC).putInt(99).flip());
+	}
+
+	@Test
+	public void decodeThrowsExceptionOnTruncatedSnapshot() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("Truncated term snapshot");
+		ByteBuffer snapshot = TermSnapshotCodec.encode(new Term("./src/test/resources/test-data/term-data.txt"));
+		snapshot.limit(snapshot.limit() - 10);
+		TermSnapshotCodec.decode(snapshot);
+	}
+
+}
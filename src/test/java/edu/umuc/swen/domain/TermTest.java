@@ -2,17 +2,37 @@ package edu.umuc.swen.domain;
 
 import static edu.umuc.swen.domain.util.ParsingUtil.parseDate;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
-import java.lang.reflect.Field;
-import java.util.Arrays;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 import edu.umuc.swen.error.CourseOutOfRangeException;
 import edu.umuc.swen.error.InvalidOperationException;
+import edu.umuc.swen.error.InvalidStudentOperationException;
 
 /**
  * @author ezerbo
@@ -23,6 +43,9 @@ public class TermTest {
 	@Rule
 	public ExpectedException expectedException = ExpectedException.none(); 
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void generateScheduleForCourse() {
 		Term term = new Term();
@@ -168,7 +191,7 @@ public class TermTest {
 		term.addCourse(onlineCourse);
 		term.addCourse(labCourse);
 		
-		term.saveCourseScheduleToFile("./test.txt");
+		term.saveCourseScheduleToFile(new File(folder.getRoot(), "test.txt").getPath());
 	}
 	
 	@Test
@@ -209,16 +232,13 @@ public class TermTest {
 		expectedException.expect(InvalidOperationException.class);
 		expectedException.expectMessage("Unable to delete course with id : '1' because it has already started");
 		Term term = new Term();
-		Field courses = Term.class.getDeclaredField("courses");
-		courses.setAccessible(true);
 		Address address = new Address("221-B", "Baker Street", "London", "UK", "188000");
 		Location classroomLocation = new Location("2E", "1019", address);
 		//Course has started
 		Course course = new HybridCourse(1, "MATH101", parseDate("03/20/2019"), new Date(System.currentTimeMillis() + 86400000), "T TH",
 				"6:00PM - 6:30PM", "FL2019", "https://swen-646.umuc.edu", classroomLocation);
-		courses.set(term, Arrays.asList(course));
+		term.restoreCourse(course); //Skips the date checks of addCourse
 		term.removeCourse(1);
-		courses.setAccessible(false);
 	}
 	
 	@Test
@@ -263,7 +283,7 @@ public class TermTest {
 		term.changeStudentGpa(2, 2, 3.9);
 		term.addStudentToCourse(student3, 3);
 		term.changeStudentGpa(3, 3, 3.8);
-		term.saveToFile("./term-data.txt");
+		term.saveToFile(new File(folder.getRoot(), "term-data.txt").getPath());
 	}
 	
 	@Test
@@ -273,6 +293,224 @@ public class TermTest {
 		assertEquals(3, term.getCourses().size());
 	}
 	
+	@Test
+	public void loadTermWithCoursesInAnyOrder() {
+		Term term = new Term("./src/test/resources/test-data/term-data-unordered.txt");
+		assertEquals("SP2020", term.getTermCode());
+		assertEquals(3, term.getCourses().size());
+		assertTrue(term.getCourses().get(0) instanceof LabCourse);
+		assertTrue(term.getCourses().get(1) instanceof OnlineCourse);
+		assertTrue(term.getCourses().get(2) instanceof HybridCourse);
+		assertEquals("https://swen-646.umuc.edu", ((HybridCourse)term.getCourses().get(2)).getUrl());
+	}
+	
+	@Test
+	public void loadTermWithParallelParsingKeepsFileOrder() throws IOException {
+		String content = new String(Files.readAllBytes(Paths.get("./src/test/resources/test-data/term-data-unordered.txt")), StandardCharsets.UTF_8);
+		int coursesStart = content.indexOf("<courses>") + "<courses>".length();
+		int coursesEnd = content.indexOf("</courses>");
+		StringBuilder courses = new StringBuilder();
+		for(int i = 0; i < 100; i++) courses.append(content, coursesStart, coursesEnd);
+		File file = folder.newFile("large-term.txt");
+		Files.write(file.toPath(), (content.substring(0, coursesStart) + courses + content.substring(coursesEnd)).getBytes(StandardCharsets.UTF_8));
+		Term term = new Term(file.getPath(), true);
+		assertEquals(300, term.getCourses().size());
+		assertTrue(term.getCourses().get(297) instanceof LabCourse);
+		assertTrue(term.getCourses().get(299) instanceof HybridCourse);
+		assertEquals(new Term(file.getPath()).toString(), term.toString());
+	}
+	
+	@Test
+	public void concurrentEnrollmentNeverExceedsCourseCapacity() throws Exception {
+		Term term = new Term();
+		term.addCourse(getOnlineCourse(1));
+		term.addCourse(getOnlineCourse(2));
+		AtomicInteger rejected = new AtomicInteger();
+		runConcurrently(8, thread -> {
+			for(int i = 0; i < 10; i++) {
+				for(int courseId = 1; courseId <= 2; courseId++) {
+					try {
+						term.addStudentToCourse(new Student(thread * 10 + i, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()), courseId);
+					} catch (InvalidStudentOperationException e) {
+						rejected.incrementAndGet();
+					}
+				}
+			}
+		});
+		assertEquals(20, term.getCourse(1).getStudents().size());
+		assertEquals(20, term.getCourse(2).getStudents().size());
+		assertEquals(120, rejected.get());
+	}
+	
+	@Test
+	public void concurrentAddCourseNeverExceedsSixCourses() throws Exception {
+		Term term = new Term();
+		AtomicInteger rejected = new AtomicInteger();
+		runConcurrently(12, thread -> {
+			try {
+				term.addCourse(getOnlineCourse(thread));
+			} catch (CourseOutOfRangeException e) {
+				rejected.incrementAndGet();
+			}
+		});
+		assertEquals(6, term.getCourses().size());
+		assertEquals(6, rejected.get());
+		term.getCourses().forEach(course -> assertEquals(course, term.getCourse(course.getId())));
+	}
+	
+	@Test
+	public void coursesReplacedThroughTheListAreFound() {
+		Term term = new Term();
+		term.addCourse(getOnlineCourse(1));
+		term.addCourse(getOnlineCourse(2));
+		OnlineCourse replacement = getOnlineCourse(1);
+		term.getCourses().set(0, replacement); //Same size, different course
+		assertSame(replacement, term.getCourse(1));
+		term.getCourses().remove(1);
+		term.getCourses().add(getOnlineCourse(3)); //Remove then add, same size again
+		assertEquals(3, term.getCourse(3).getId());
+		assertNull(term.findCourse(2));
+	}
+	
+	@Test
+	public void removedCourseIdentifierPointsToTheNextCourseSharingIt() {
+		Term term = new Term();
+		OnlineCourse first = getOnlineCourse(1);
+		OnlineCourse second = getOnlineCourse(1);
+		term.getCourses().add(first);
+		term.getCourses().add(second);
+		term.getCourses().add(0, getOnlineCourse(2));
+		assertSame(first, term.getCourse(1));
+		term.getCourses().remove(first);
+		assertSame(second, term.getCourse(1));
+		term.getCourses().remove(second);
+		assertNull(term.findCourse(1));
+		assertEquals(2, term.getCourse(2).getId());
+	}
+	
+	@Test
+	public void coursesAreFoundWhileOtherCoursesAreAddedAndRemoved() throws InterruptedException {
+		Term term = new Term();
+		OnlineCourse course = getOnlineCourse(1);
+		term.restoreCourse(course);
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread changer = new Thread(() -> {
+			while(running.get()) {
+				for(int id = 2; id <= 200; id++) term.restoreCourse(getOnlineCourse(id)); //Resizes the index
+				for(int id = 2; id <= 200; id++) term.restoreCourseRemoval(id);
+			}
+		});
+		changer.start();
+		try {
+			for(int i = 0; i < 200000; i++) assertSame(course, term.findCourse(1));
+		} finally {
+			running.set(false);
+			changer.join();
+		}
+	}
+	
+	@Test
+	public void fullCourseRejectsStudentsWithoutWaitingOnItsLock() throws Exception {
+		Term term = new Term();
+		term.addCourse(getOnlineCourse(1));
+		for(int id = 1; id <= 20; id++) {
+			term.addStudentToCourse(new Student(id, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()), 1);
+		}
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			synchronized (term.getCourse(1)) { //Held by a long running change
+				Future<?> enrollment = executor.submit(() ->
+						term.addStudentToCourse(new Student(21, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()), 1));
+				try {
+					enrollment.get(10, TimeUnit.SECONDS);
+					fail("The course is full");
+				} catch (ExecutionException e) {
+					assertTrue(e.getCause() instanceof InvalidStudentOperationException);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(20, term.getCourse(1).getStudents().size());
+	}
+	
+	@Test
+	public void captureHoldsTheTermAsItWasWhenStarted() {
+		Term term = new Term();
+		term.addCourse(getOnlineCourse(1));
+		term.addCourse(getOnlineCourse(2));
+		term.addStudentToCourse(new Student(1, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()), 1);
+		term.changeStudentGpa(1, 1, 3.0);
+		term.startCapture();
+		term.changeStudentGpa(1, 1, 2.0);
+		term.addStudentToCourse(new Student(2, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()), 2);
+		term.addCourse(getOnlineCourse(3));
+		Term captured = term.finishCapture();
+		term.changeStudentGpa(1, 1, 1.0);
+		assertEquals(2, captured.getCourses().size());
+		assertEquals(3.0, captured.getCourse(1).getStudentGPA(1), 0);
+		assertEquals(3.0, captured.getCourse(1).calculateAverageGpa(), 0);
+		assertEquals(0, captured.getCourse(2).getStudents().size());
+		assertEquals(1.0, term.getCourse(1).getStudentGPA(1), 0);
+		assertEquals(1, term.getCourse(2).getStudents().size());
+	}
+	
+	@Test
+	public void addStudentsToCoursesReportsEachEnrollment() {
+		Term term = new Term();
+		term.addCourse(new LabCourse(1, "MATH101", new Date(System.currentTimeMillis() + 86400000), new Date(System.currentTimeMillis() + 86400000), "T TH",
+				"6:00PM - 6:30PM", "FL2019", new Location("2E", "1019", getAddress()), new Location("5E", "1019", getAddress())));
+		term.addCourse(getOnlineCourse(2));
+		term.restoreCourse(new OnlineCourse(3, "https://swen-646.umuc.edu", "MATH101", parseDate("03/23/2019"),
+				parseDate("04/23/2019"), "T TH", "FL2019", "6:00PM - 6:30PM")); //Ended
+		List<Enrollment> enrollments = new ArrayList<>();
+		for(int i = 1; i <= 12; i++) {
+			enrollments.add(new Enrollment(new Student(i, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()), 1));
+			if(i % 4 == 0) enrollments.add(new Enrollment(new Student(i, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()), 2));
+		}
+		enrollments.add(new Enrollment(new Student(13, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()), 3));
+		enrollments.add(new Enrollment(new Student(14, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()), 4));
+		List<EnrollmentResult> results = term.addStudentsToCourses(enrollments);
+		assertEquals(enrollments.size(), results.size());
+		for(int i = 0; i < results.size(); i++) assertEquals(enrollments.get(i), results.get(i).getEnrollment());
+		assertEquals(10, term.getCourse(1).getStudents().size()); //Lab courses hold 10 students, the first ones are added
+		assertEquals(3, term.getCourse(2).getStudents().size());
+		assertEquals(0, term.getCourse(3).getStudents().size());
+		assertEquals(13, results.stream().filter(EnrollmentResult::isSuccessful).count());
+		assertEquals("Unable to add students to this course, the maximum number of students (10) has been reached",
+				results.get(enrollments.size() - 4).getError().getMessage()); //Student 12 in course 1
+		assertEquals("Unable to add students to this course, it has already ended on 04/23/2019", results.get(enrollments.size() - 2).getError().getMessage());
+		assertEquals("No course found with id: 4", results.get(enrollments.size() - 1).getError().getMessage());
+	}
+	
+	/**
+	 * Runs a task on several threads at once
+	 * 
+	 * @param threads Number of threads, each receives its number
+	 * @param task Task to run
+	 */
+	private void runConcurrently(int threads, IntConsumer task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for(int i = 0; i < threads; i++) {
+			int thread = i;
+			futures.add(executor.submit(() -> {
+				start.await();
+				task.accept(thread);
+				return null;
+			}));
+		}
+		start.countDown();
+		for(Future<?> future : futures) future.get();
+		executor.shutdown();
+	}
+	
+	private OnlineCourse getOnlineCourse(int id) {
+		return new OnlineCourse(id, "https://swen-646.umuc.edu", "MATH101", new Date(System.currentTimeMillis() + 86400000),
+				new Date(System.currentTimeMillis() + 86400000), "T TH", "FL2019", "6:00PM - 6:30PM");
+	}
+	
 	private HybridCourse getCourse() {
 		Address address = new Address("221-B", "Baker Street", "London", "UK", "188000");
 		Location classroomLocation = new Location("2E", "1019", address);
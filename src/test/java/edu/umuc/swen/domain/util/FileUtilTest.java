@@ -0,0 +1,98 @@
+package edu.umuc.swen.domain.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class FileUtilTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void mapFromFileDecodesUtf8AndSkipsCarriageReturns() throws IOException {
+		File file = folder.newFile("address.txt");
+		Files.write(file.toPath(), "<address>\r\n<city>Montr\u00e9al</city>\r\n</address>".getBytes(StandardCharsets.UTF_8));
+		assertEquals("<address>\n<city>Montr\u00e9al</city>\n</address>", FileUtil.mapFromFile(file.getPath()).toString());
+		assertEquals("<address>\n<city>Montr\u00e9al</city>\n</address>", FileUtil.loadFromFile(file.getPath()));
+	}
+
+	@Test
+	public void mapFromFileReturnsEmptyContentForEmptyFile() throws IOException {
+		File file = folder.newFile("empty.txt");
+		assertEquals(0, FileUtil.mapFromFile(file.getPath()).length());
+	}
+
+	@Test
+	public void writeToFileAtomicallyReplacesFile() throws IOException {
+		File file = folder.newFile("term.txt");
+		Files.write(file.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+		FileUtil.writeToFileAtomically(file.getPath(), out -> out.value("termcode", "FL2019"));
+		assertEquals("<termcode>FL2019</termcode>", FileUtil.loadFromFile(file.getPath()));
+		assertEquals(1, folder.getRoot().list().length); //No temporary file left behind
+	}
+	
+	@Test
+	public void writeToFileAtomicallyLeavesFileUntouchedOnFailure() throws IOException {
+		File file = folder.newFile("term.txt");
+		Files.write(file.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+		try {
+			FileUtil.writeToFileAtomically(file.getPath(), out -> {
+				out.value("termcode", "FL2019");
+				throw new UncheckedIOException(new IOException("Disk full"));
+			});
+			fail("Expected the failure to be reported");
+		} catch (RuntimeException e) {
+			assertEquals("Unable to write to '" + file.getPath() + "', message: 'Disk full'", e.getMessage());
+		}
+		assertEquals("old", FileUtil.loadFromFile(file.getPath()));
+		assertEquals(1, folder.getRoot().list().length);
+	}
+
+	@Test
+	public void writeToFileAtomicallyRemovesTemporaryFileOnAnyFailure() throws IOException {
+		File file = folder.newFile("term.txt");
+		try {
+			FileUtil.writeToFileAtomically(file.getPath(), out -> {
+				throw new IllegalStateException("Invalid term");
+			});
+			fail("Expected the failure to be reported");
+		} catch (IllegalStateException e) {
+			assertEquals("Invalid term", e.getMessage());
+		}
+		assertEquals(1, folder.getRoot().list().length);
+	}
+	
+	@Test
+	public void writeToFileAtomicallyKeepsPermissions() throws IOException {
+		File file = folder.newFile("term.txt");
+		Assume.assumeTrue(file.toPath().getFileSystem().supportedFileAttributeViews().contains("posix"));
+		Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r--r--");
+		Files.setPosixFilePermissions(file.toPath(), permissions);
+		FileUtil.writeToFileAtomically(file.getPath(), out -> out.value("termcode", "FL2019"));
+		assertEquals(permissions, Files.getPosixFilePermissions(file.toPath()));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void mapFromFileThrowsExceptionWhenFileIsMissing() {
+		FileUtil.mapFromFile(new File(folder.getRoot(), "missing.txt").getPath());
+	}
+
+}
@@ -0,0 +1,50 @@
+package edu.umuc.swen.domain.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class IntObjectMapTest {
+
+	@Test
+	public void putGetAndRemove() {
+		IntObjectMap<String> map = new IntObjectMap<>();
+		assertNull(map.put(1, "MATH101"));
+		assertEquals("MATH101", map.put(1, "SWEN646"));
+		assertEquals("SWEN646", map.putIfAbsent(1, "MATH101"));
+		assertEquals("SWEN646", map.get(1));
+		assertEquals(1, map.size());
+		assertEquals("SWEN646", map.remove(1));
+		assertNull(map.get(1));
+		assertEquals(0, map.size());
+	}
+
+	@Test
+	public void behavesLikeHashMap() {
+		IntObjectMap<Integer> map = new IntObjectMap<>();
+		Map<Integer, Integer> expected = new HashMap<>();
+		Random random = new Random(646);
+		for(int i = 0; i < 100000; i++) {
+			int key = random.nextInt(2000) - 1000;
+			if(random.nextBoolean()) {
+				assertEquals(expected.put(key, i), map.put(key, i));
+			} else {
+				assertEquals(expected.remove(key), map.remove(key));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for(int key = -1000; key < 1000; key++) {
+			assertEquals(expected.get(key), map.get(key));
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+package edu.umuc.swen.domain.util;
+
+import static edu.umuc.swen.domain.util.ParsingUtil.format;
+import static edu.umuc.swen.domain.util.ParsingUtil.parseDate;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class ParsingUtilTest {
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Test
+	public void parseDateReturnsStartOfDay() {
+		Calendar calendar = Calendar.getInstance();
+		calendar.clear();
+		calendar.set(2019, Calendar.APRIL, 25);
+		assertEquals(calendar.getTime(), parseDate("04/25/2019"));
+		assertEquals("04/25/2019", format(calendar.getTime()));
+	}
+
+	@Test
+	public void parseDateThrowsExceptionOnInvalidDate() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("Unable to parse date : 02/30/2019");
+		parseDate("02/30/2019");
+	}
+
+	@Test
+	public void parseDateIsSafeUnderConcurrentUse() {
+		List<String> dates = IntStream.range(0, 10000)
+				.mapToObj(i -> String.format("%02d/%02d/%d", i % 12 + 1, i % 28 + 1, 2000 + i % 30))
+				.collect(Collectors.toList());
+		List<String> formattedDates = dates.parallelStream()
+				.map(date -> {
+					Date parsed = parseDate(date);
+					return format(parsed);
+				})
+				.collect(Collectors.toList());
+		assertEquals(dates, formattedDates);
+	}
+
+}
@@ -0,0 +1,44 @@
+package edu.umuc.swen.domain.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import edu.umuc.swen.domain.Address;
+import edu.umuc.swen.domain.Student;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class StringPoolTest {
+
+	@Test
+	public void internReturnsPooledInstance() {
+		String city = StringPool.intern(new String("Adelphi"));
+		assertSame(city, StringPool.intern(new String("Adelphi")));
+		assertNull(StringPool.intern(null));
+	}
+
+	@Test
+	public void internKeepsValuesOfCollidingStrings() {
+		for(int i = 0; i < 100000; i++) {
+			String value = "Building " + i;
+			assertEquals(value, StringPool.intern(new String(value)));
+		}
+	}
+
+	@Test
+	public void parsedValuesAreShared() {
+		Student first = new Student("<student><id>1</id><firstname>Ada</firstname><lastname>Lovelace</lastname><overallgpa>4.0</overallgpa>"
+				+ "<emailaddress>ada@umuc.edu</emailaddress><mailingaddress><address><buildingnumber>3501</buildingnumber><street>University Boulevard</street>"
+				+ "<city>Adelphi</city><state>MD</state><zipcode>20783</zipcode></address></mailingaddress></student>");
+		Address second = new Address("<address><buildingnumber>1</buildingnumber><street>Main Street</street>"
+				+ "<city>Adelphi</city><state>MD</state><zipcode>20783</zipcode></address>");
+		assertSame(first.getMailingAddress().getCity(), second.getCity());
+		assertSame(first.getMailingAddress().getState(), second.getState());
+	}
+
+}
@@ -0,0 +1,71 @@
+package edu.umuc.swen.domain.util;
+
+import static edu.umuc.swen.domain.util.TagTokenizer.tokenize;
+import static org.junit.Assert.assertEquals;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class TagTokenizerTest {
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	private String formattedValue = "<location><roomnumber>10</roomnumber><buildingname>Holmes</buildingname>\n" +
+			"<address><buildingnumber>221-B</buildingnumber><street>Baker Street</street></address>\n" +
+			"<notes></notes></location>";
+
+	@Test
+	public void tokenizeReportsValuesAndNestedElements() {
+		List<String> events = new LinkedList<>();
+		tokenize(formattedValue, new RecordingHandler("", events));
+		assertEquals("start:location, location.roomnumber=10, location.buildingname=Holmes, start:address, "
+				+ "address.buildingnumber=221-B, address.street=Baker Street, location.notes=", String.join(", ", events));
+	}
+
+	@Test
+	public void tokenizeThrowsExceptionOnMismatchedTags() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("Expected '</id>' but found '</name>'");
+		tokenize("<student><id>1</name></student>", new TagHandler() {});
+	}
+
+	@Test
+	public void tokenizeThrowsExceptionOnUnclosedTags() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("Unclosed tag '<student>'");
+		tokenize("<student><id>1</id>", new TagHandler() {});
+	}
+
+	/**
+	 * Records events prefixed with the name of the element the handler was created for
+	 */
+	private static class RecordingHandler implements TagHandler {
+
+		private final String element;
+		private final List<String> events;
+
+		private RecordingHandler(String element, List<String> events) {
+			this.element = element;
+			this.events = events;
+		}
+
+		public TagHandler start(String tag) {
+			events.add("start:" + tag);
+			return new RecordingHandler(tag, events);
+		}
+
+		public void value(String tag, String value) {
+			events.add(element + "." + tag + "=" + value);
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+package edu.umuc.swen.domain.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class WeakInternerTest {
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Test
+	public void internReturnsFirstEqualValue() {
+		WeakInterner<String> interner = new WeakInterner<>(16);
+		String first = new String("Baker Street");
+		assertSame(first, interner.intern(first));
+		assertSame(first, interner.intern(new String("Baker Street")));
+	}
+
+	@Test
+	public void collidingValuesReplaceEachOther() {
+		WeakInterner<String> interner = new WeakInterner<>(1); //Every value falls in the same slot
+		String first = new String("Adelphi");
+		interner.intern(first);
+		String second = new String("Largo");
+		assertSame(second, interner.intern(second));
+		String third = new String("Adelphi");
+		assertSame(third, interner.intern(third));
+		assertEquals(first, third);
+	}
+
+	@Test
+	public void constructorThrowsExceptionWhenSizeIsNotAPowerOfTwo() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("Invalid interner size : 12");
+		new WeakInterner<String>(12);
+	}
+
+}
@@ -0,0 +1,66 @@
+package edu.umuc.swen.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void smallLatenciesAreCountedExactly() {
+		LatencyHistogram histogram = new LatencyHistogram("test");
+		for(long nanos = 1; nanos <= 100; nanos++) histogram.record(nanos);
+		assertEquals(100, histogram.getCount());
+		assertEquals(50, histogram.getValueAtPercentile(50));
+		assertEquals(99, histogram.getValueAtPercentile(99));
+		assertEquals(100, histogram.getValueAtPercentile(100));
+		assertEquals(50.5, histogram.getMeanNanos(), 0);
+		assertEquals(100, histogram.getMaxNanos());
+	}
+
+	@Test
+	public void largeLatenciesAreWithinPrecision() {
+		LatencyHistogram histogram = new LatencyHistogram("test");
+		for(long millis = 1; millis <= 1000; millis++) histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+		assertWithinPrecision(TimeUnit.MILLISECONDS.toNanos(500), histogram.getValueAtPercentile(50));
+		assertWithinPrecision(TimeUnit.MILLISECONDS.toNanos(990), histogram.getValueAtPercentile(99));
+		assertWithinPrecision(TimeUnit.MILLISECONDS.toNanos(999), histogram.getValueAtPercentile(99.9));
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void bucketsCoverEveryValue() {
+		for(long value = 0; value < 1 << 20; value += 7) {
+			int index = LatencyHistogram.indexOf(value);
+			assertTrue(value <= LatencyHistogram.highestValueOf(index));
+			assertTrue(index == 0 || value > LatencyHistogram.highestValueOf(index - 1));
+		}
+	}
+
+	@Test
+	public void latenciesLongerThanAnHourAreCountedAsAnHour() {
+		LatencyHistogram histogram = new LatencyHistogram("test");
+		histogram.record(TimeUnit.DAYS.toNanos(1));
+		assertWithinPrecision(TimeUnit.HOURS.toNanos(1), histogram.getValueAtPercentile(50));
+		assertEquals(TimeUnit.DAYS.toNanos(1), histogram.getMaxNanos());
+	}
+
+	@Test
+	public void emptyHistogramReportsZero() {
+		LatencyHistogram histogram = new LatencyHistogram("test");
+		assertEquals(0, histogram.getValueAtPercentile(99));
+		assertEquals(0, histogram.getMeanNanos(), 0);
+	}
+
+	private void assertWithinPrecision(long expected, long actual) {
+		assertTrue(String.format("%s is not within 1.6%% of %s", actual, expected), Math.abs(actual - expected) <= expected / 64);
+	}
+
+}
@@ -0,0 +1,65 @@
+package edu.umuc.swen.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class MetricsRegistryTest {
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Test
+	public void metricsAreCreatedOnce() {
+		MetricsRegistry registry = new MetricsRegistry();
+		assertSame(registry.histogram("a"), registry.histogram("a"));
+		assertSame(registry.counter("b"), registry.counter("b"));
+	}
+
+	@Test
+	public void dumpListsMetricsInNameOrder() {
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.histogram("op.b").record(2000);
+		registry.histogram("op.a").record(1000);
+		registry.counter("bytes").add(42);
+		String[] lines = registry.dump().split("\\R");
+		assertEquals(3, lines.length);
+		assertTrue(lines[0].startsWith("op.a count=1 "));
+		assertTrue(lines[1].startsWith("op.b count=1 "));
+		assertEquals("bytes count=42", lines[2]);
+	}
+
+	@Test
+	public void metricsAreRegisteredWithJmx() throws Exception {
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.counter("before").add(3);
+		registry.registerMBeans("edu.umuc.swen.test");
+		registry.histogram("after").record(5000);
+		assertEquals(3L, ManagementFactory.getPlatformMBeanServer()
+				.getAttribute(new ObjectName("edu.umuc.swen.test:type=Counter,name=\"before\""), "Count"));
+		assertEquals(1L, ManagementFactory.getPlatformMBeanServer()
+				.getAttribute(new ObjectName("edu.umuc.swen.test:type=Latency,name=\"after\""), "Count"));
+	}
+
+	@Test
+	public void registerMBeansThrowsExceptionForAnotherDomain() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("Metrics are already registered under 'edu.umuc.swen.first'");
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.registerMBeans("edu.umuc.swen.first");
+		registry.registerMBeans("edu.umuc.swen.second");
+	}
+
+}
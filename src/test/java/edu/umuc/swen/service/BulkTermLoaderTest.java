@@ -0,0 +1,74 @@
+package edu.umuc.swen.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class BulkTermLoaderTest {
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void init() throws IOException {
+		Files.copy(Paths.get("./src/test/resources/test-data/term-data-unordered.txt"), folder.getRoot().toPath().resolve("a-SP2020.txt"));
+		Files.write(folder.newFile("b-broken.txt").toPath(), ("<term><termcode>FL2020</termcode><courses>\n"
+				+ "<onlinecourse><id>1</name></onlinecourse>\n</courses></term>").getBytes(StandardCharsets.UTF_8));
+		Files.copy(Paths.get("./src/test/resources/test-data/term-data.txt"), folder.getRoot().toPath().resolve("c-FL2019.txt"));
+	}
+
+	@Test
+	public void loadDirectoryReportsEachFileInNameOrder() {
+		List<TermLoadResult> results = new BulkTermLoader(new ForkJoinPool(2)).loadDirectory(folder.getRoot().getPath());
+		assertEquals(3, results.size());
+		assertTrue(results.get(0).isSuccessful());
+		assertEquals("SP2020", results.get(0).getTerm().getTermCode());
+		assertFalse(results.get(1).isSuccessful());
+		assertTrue(results.get(1).getFileName().endsWith("b-broken.txt"));
+		assertNull(results.get(1).getTerm());
+		assertEquals("Expected '</id>' but found '</name>'", results.get(1).getError().getMessage());
+		assertTrue(results.get(2).isSuccessful());
+		assertEquals("FL2019", results.get(2).getTerm().getTermCode());
+	}
+
+	@Test
+	public void loadReportsFilesWithoutTermCode() throws IOException {
+		File file = folder.newFile("no-term-code.txt");
+		String content = new String(Files.readAllBytes(Paths.get("./src/test/resources/test-data/term-data-unordered.txt")), StandardCharsets.UTF_8);
+		Files.write(file.toPath(), content.replaceAll("<termcode>[^<]*</termcode>", "").getBytes(StandardCharsets.UTF_8));
+		TermLoadResult result = new BulkTermLoader().load(Collections.singletonList(file.getPath())).get(0);
+		assertFalse(result.isSuccessful());
+		assertEquals("No term code found in '" + file.getPath() + "'", result.getError().getMessage());
+	}
+
+	@Test
+	public void loadDirectoryThrowsExceptionOnMissingDirectory() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("Unable to list");
+		new BulkTermLoader().loadDirectory(new File(folder.getRoot(), "missing").getPath());
+	}
+
+}
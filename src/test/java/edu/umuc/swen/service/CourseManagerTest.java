@@ -1,17 +1,29 @@
 package edu.umuc.swen.service;
 
 import static edu.umuc.swen.domain.util.ParsingUtil.parseDate;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
@@ -21,13 +33,18 @@ import org.junit.rules.ExpectedException;
 
 import edu.umuc.swen.domain.Address;
 import edu.umuc.swen.domain.Course;
+import edu.umuc.swen.domain.Enrollment;
+import edu.umuc.swen.domain.EnrollmentResult;
 import edu.umuc.swen.domain.HybridCourse;
 import edu.umuc.swen.domain.OnlineCourse;
 import edu.umuc.swen.domain.Student;
 import edu.umuc.swen.domain.Term;
+import edu.umuc.swen.domain.TermJournal;
+import edu.umuc.swen.domain.TermSnapshotCodec;
 import edu.umuc.swen.error.CourseOutOfRangeException;
 import edu.umuc.swen.error.InvalidOperationException;
 import edu.umuc.swen.error.InvalidStudentOperationException;
+import edu.umuc.swen.metrics.MetricsRegistry;
 
 /**
  * @author ezerbo
@@ -79,6 +96,20 @@ public class CourseManagerTest {
 		}
 	}
 	
+	@Test
+	public void operationsAndTermParsingAreTimed() {
+		MetricsRegistry metrics = MetricsRegistry.getDefault();
+		long parsed = metrics.histogram("term.parse").getCount();
+		long parsedBytes = metrics.counter("term.parse.bytes").getCount();
+		long found = metrics.histogram("courseManager.getCourse").getCount();
+		CourseManager manager = new CourseManager("./term-data/term-with-2-courses-and-2-students.txt");
+		manager.getCourse(1);
+		assertEquals(parsed + 1, metrics.histogram("term.parse").getCount());
+		assertTrue(metrics.counter("term.parse.bytes").getCount() > parsedBytes);
+		assertEquals(found + 1, metrics.histogram("courseManager.getCourse").getCount());
+		assertTrue(metrics.dump().contains("courseManager.getCourse count="));
+	}
+	
 	@Test
 	public void removeCourse() {
 		CourseManager manager = new CourseManager("./term-data/term-with-2-courses-and-2-students.txt");
@@ -148,6 +179,375 @@ public class CourseManagerTest {
 		assertEquals(3.5, manager.calculateCourseAverageGpa(1), 0);
 	}
 	
+	@Test
+	public void serveRegisteredTerms() {
+		CourseManager manager = new CourseManager("./term-data/term-with-2-courses-and-2-students.txt");
+		manager.registerTerm("SP2020", "./src/test/resources/test-data/term-data-unordered.txt");
+		manager.changeStudentGpa("FL2019", 1, 1, 4.0);
+		assertEquals(4.0, manager.calculateCourseAverageGpa("FL2019", 1), 0);
+		assertEquals(3.9, manager.calculateCourseAverageGpa("SP2020", 2), 0);
+		assertEquals("SP2020", manager.getTerm("SP2020").getTermCode());
+		assertEquals(0, manager.unloadIdleTerms(60000));
+	}
+	
+	@Test
+	public void journaledChangesSurviveRestart() throws IOException {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		try {
+			Files.copy(Paths.get("./term-data/term-with-2-courses-and-2-students.txt"), termFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			manager.changeStudentGpa(1, 1, 4.0);
+			manager.changeStudentGpa(2, 1, 2.0);
+			manager.close();
+			CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+			assertEquals(3.0, restarted.calculateCourseAverageGpa(1), 0);
+			restarted.close();
+		} finally {
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+		}
+	}
+	
+	@Test
+	public void compactJournalSavesSnapshotOfTerm() throws IOException {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		Path snapshotFile = Paths.get(termFile + CourseManager.SNAPSHOT_SUFFIX);
+		try {
+			Files.copy(Paths.get("./term-data/term-with-2-courses-and-2-students.txt"), termFile, StandardCopyOption.REPLACE_EXISTING);
+			byte[] termData = Files.readAllBytes(termFile);
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			manager.changeStudentGpa(1, 1, 4.0);
+			manager.compactJournal();
+			manager.changeStudentGpa(2, 1, 2.0);
+			manager.close();
+			assertArrayEquals(termData, Files.readAllBytes(termFile)); //Still readable by every term loader
+			assertEquals("FL2019", new Term(termFile.toString()).getTermCode());
+			assertEquals(TermSnapshotCodec.MAGIC, ByteBuffer.wrap(Files.readAllBytes(snapshotFile)).getInt());
+			try (TermJournal journal = new TermJournal(journalFile.toString())) {
+				assertEquals(1, journal.replay(Term.load(snapshotFile.toString()))); //Only the change made after the compaction
+			}
+			CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+			assertEquals(3.0, restarted.calculateCourseAverageGpa(1), 0);
+			restarted.close();
+		} finally {
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+			Files.deleteIfExists(snapshotFile);
+		}
+	}
+	
+	@Test
+	public void compactJournalSavesSnapshotThatFailedToBeSaved() throws IOException {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		Path snapshotFile = Paths.get(termFile + CourseManager.SNAPSHOT_SUFFIX);
+		Path blocker = snapshotFile.resolve("blocker");
+		try {
+			Files.copy(Paths.get("./term-data/term-with-2-courses-and-2-students.txt"), termFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			Files.createDirectory(snapshotFile);
+			Files.createFile(blocker); //A directory that is not empty cannot be replaced by the snapshot
+			manager.changeStudentGpa(1, 1, 4.0);
+			try {
+				manager.compactJournal();
+				fail("The snapshot cannot be saved");
+			} catch (RuntimeException e) {
+			}
+			manager.changeStudentGpa(2, 1, 2.0);
+			Files.delete(blocker);
+			Files.delete(snapshotFile);
+			manager.compactJournal(); //Saves the pending snapshot then compacts the change made since
+			manager.changeStudentGpa(3, 2, 1.0);
+			manager.close();
+			assertFalse(Files.exists(Paths.get(journalFile + TermJournal.NEXT_SUFFIX)));
+			try (TermJournal journal = new TermJournal(journalFile.toString())) {
+				assertEquals(1, journal.replay(Term.load(snapshotFile.toString())));
+			}
+			CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+			assertEquals(3.0, restarted.calculateCourseAverageGpa(1), 0);
+			assertEquals(1.0, restarted.getCourse(2).getStudentGPA(3), 0);
+			restarted.close();
+		} finally {
+			if(Files.isDirectory(snapshotFile)) Files.deleteIfExists(blocker);
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+			Files.deleteIfExists(Paths.get(journalFile + TermJournal.NEXT_SUFFIX));
+			Files.deleteIfExists(snapshotFile);
+		}
+	}
+	
+	@Test
+	public void compactJournalDoesNotHoldBackChanges() throws Exception {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		Path snapshotFile = Paths.get(termFile + CourseManager.SNAPSHOT_SUFFIX);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Files.copy(Paths.get("./term-data/term-with-2-courses-and-2-students.txt"), termFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			manager.changeStudentGpa(1, 1, 4.0);
+			Thread compaction = new Thread(manager::compactJournal);
+			synchronized (manager.getCourse(2)) { //Held by a long running change, the compaction waits to copy the course
+				compaction.start();
+				while(compaction.getState() != Thread.State.BLOCKED) Thread.sleep(1);
+				executor.submit(() -> manager.changeStudentGpa(2, 1, 2.0)).get(10, TimeUnit.SECONDS);
+			}
+			compaction.join();
+			manager.close();
+			try (TermJournal journal = new TermJournal(journalFile.toString())) {
+				assertEquals(1, journal.replay(Term.load(snapshotFile.toString()))); //Made during the compaction, not in the snapshot
+			}
+			CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+			assertEquals(3.0, restarted.calculateCourseAverageGpa(1), 0);
+			restarted.close();
+		} finally {
+			executor.shutdownNow();
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+			Files.deleteIfExists(Paths.get(journalFile + TermJournal.NEXT_SUFFIX));
+			Files.deleteIfExists(snapshotFile);
+		}
+	}
+	
+	@Test
+	public void changesSurviveRestartsAfterCrashDuringCompaction() throws IOException {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		Path snapshotFile = Paths.get(termFile + CourseManager.SNAPSHOT_SUFFIX);
+		try {
+			Files.copy(Paths.get("./term-data/term-with-2-courses-and-2-students.txt"), termFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.delete(journalFile);
+			TermJournal journal = new TermJournal(journalFile.toString());
+			journal.changeStudentGpa(1, 1, 1.5);
+			TermJournal next = journal.startNext();
+			next.changeStudentGpa(2, 1, 2.5);
+			next.setBaseChecksum(12345L); //Crash before the snapshot is saved
+			next.syncAll();
+			next.close();
+			journal.close();
+			for(int restart = 1; restart <= 2; restart++) {
+				CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+				assertEquals(1.5, restarted.getCourse(1).getStudentGPA(1), 0);
+				assertEquals(2.5, restarted.getCourse(1).getStudentGPA(2), 0);
+				restarted.close();
+			}
+		} finally {
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+			Files.deleteIfExists(Paths.get(journalFile + TermJournal.NEXT_SUFFIX));
+			Files.deleteIfExists(snapshotFile);
+		}
+	}
+	
+	@Test
+	public void concurrentJournaledChangesSurviveRestart() throws Exception {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		try {
+			Files.copy(Paths.get("./term-data/term-with-2-courses-and-2-students.txt"), termFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			int[][] grades = {{1, 1}, {2, 1}, {3, 2}, {4, 2}}; //Student and course changed by each thread
+			ExecutorService executor = Executors.newFixedThreadPool(grades.length);
+			List<Future<?>> futures = new ArrayList<>();
+			for(int[] grade : grades) {
+				futures.add(executor.submit(() -> {
+					for(int i = 0; i <= 40; i++) manager.changeStudentGpa(grade[0], grade[1], i / 10.0);
+				}));
+			}
+			for(Future<?> future : futures) future.get();
+			executor.shutdown();
+			manager.close();
+			CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+			for(int[] grade : grades) assertEquals(4.0, restarted.getCourse(grade[1]).getStudentGPA(grade[0]), 0);
+			assertEquals(4.0, restarted.calculateCourseAverageGpa(2), 1e-9); //Kept up to date as grades change
+			restarted.close();
+		} finally {
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+		}
+	}
+	
+	@Test
+	public void addStudentsToCoursesIsJournaled() throws IOException {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		try {
+			Term term = new Term();
+			for(int courseId = 1; courseId <= 2; courseId++) {
+				term.addCourse(new OnlineCourse(courseId, "https://swen-646.umuc.edu", "MATH101", new Date(System.currentTimeMillis() + 86400000),
+						new Date(System.currentTimeMillis() + 86400000), "T TH", "FL2019", "6:00PM - 6:30PM"));
+			}
+			term.saveToFile(termFile.toString());
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			List<Enrollment> enrollments = new ArrayList<>();
+			for(int i = 1; i <= 25; i++) {
+				enrollments.add(new Enrollment(new Student(i, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()), 1 + i % 2));
+			}
+			List<EnrollmentResult> results = manager.addStudentsToCourses(enrollments);
+			assertEquals(25, results.stream().filter(EnrollmentResult::isSuccessful).count());
+			manager.close();
+			CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+			assertEquals(12, restarted.getCourse(1).getStudents().size());
+			assertEquals(13, restarted.getCourse(2).getStudents().size());
+			restarted.close();
+		} finally {
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+		}
+	}
+	
+	@Test
+	public void changeStudentGpasIsJournaled() throws IOException {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		try {
+			Files.copy(Paths.get("./term-data/term-with-2-courses-and-2-students.txt"), termFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			manager.changeStudentGpas(1, new int[] {1, 2}, new double[] {4.0, 2.0});
+			assertEquals(3.0, manager.calculateCourseAverageGpa(1), 0);
+			manager.close();
+			CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+			assertEquals(3.0, restarted.calculateCourseAverageGpa(1), 0);
+			restarted.close();
+		} finally {
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+		}
+	}
+	
+	@Test
+	public void changesThatCannotBeJournaledAreNotApplied() throws IOException {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		try {
+			saveTermWithUpcomingCourses(termFile);
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			Double gpa = manager.getCourse(1).getStudentGPA(1);
+			manager.close(); //Records can no longer be appended
+			Student student = new Student(3, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress());
+			List<Runnable> changes = new ArrayList<>();
+			changes.add(() -> manager.changeStudentGpa(1, 1, 1.0));
+			changes.add(() -> manager.changeStudentGpas(1, new int[] {1}, new double[] {1.0}));
+			changes.add(() -> manager.addStudentToCourse(student, 1));
+			changes.add(() -> manager.removeStudentFromCourse(1, 1));
+			changes.add(() -> manager.removeCourse(2));
+			for(Runnable change : changes) {
+				try {
+					change.run();
+					fail("The change cannot be journaled");
+				} catch (RuntimeException e) {
+				}
+			}
+			assertEquals(gpa, manager.getCourse(1).getStudentGPA(1));
+			assertEquals(2, manager.getCourse(1).getStudents().size());
+			assertEquals(2, manager.getLoadedTerm().getCourses().size());
+			for(int id = 3; id <= 20; id++) { //The seat of the student that was not added is free
+				manager.getCourse(1).addStudent(new Student(id, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()));
+			}
+		} finally {
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+		}
+	}
+	
+	@Test
+	public void addStudentToCourseOfLoadedTermCodeSurvivesRestart() throws IOException {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		try {
+			saveTermWithUpcomingCourses(termFile);
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			manager.addStudentToCourse("FL2019", new Student(3, "Sherlock", "Holmes", 4.0, "sherlock.holmes@bekerstreet.com", getAddress()), 1);
+			manager.close();
+			CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+			assertEquals(3, restarted.getCourse(1).getStudents().size());
+			restarted.close();
+		} finally {
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+		}
+	}
+	
+	@Test
+	public void removeStudentFromCourseOfLoadedTermCodeSurvivesRestart() throws IOException {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		try {
+			saveTermWithUpcomingCourses(termFile);
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			manager.removeStudentFromCourse("FL2019", 1, 1);
+			manager.close();
+			CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+			assertEquals(1, restarted.getCourse(1).getStudents().size());
+			assertEquals(2, restarted.getCourse(1).getStudents().get(0).getId());
+			restarted.close();
+		} finally {
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+		}
+	}
+	
+	@Test
+	public void changeStudentGpaOfLoadedTermCodeSurvivesRestart() throws IOException {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		try {
+			Files.copy(Paths.get("./term-data/term-with-2-courses-and-2-students.txt"), termFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			manager.changeStudentGpa("FL2019", 1, 1, 4.0);
+			manager.changeStudentGpa("FL2019", 2, 1, 2.0);
+			manager.close();
+			CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+			assertEquals(3.0, restarted.calculateCourseAverageGpa(1), 0);
+			restarted.close();
+		} finally {
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+		}
+	}
+	
+	@Test
+	public void loadStudentsIntoCourseIsJournaled() throws IOException {
+		Path termFile = Files.createTempFile("term", ".txt");
+		Path journalFile = Files.createTempFile("term", ".journal");
+		try {
+			saveTermWithUpcomingCourses(termFile);
+			Files.delete(journalFile);
+			CourseManager manager = new CourseManager(termFile.toString(), journalFile.toString());
+			manager.loadStudentsIntoCourse("./src/test/resources/test-data/students.txt", 1);
+			manager.loadStudentsIntoCourse("./src/test/resources/test-data/students.txt", 5); //No such course, ignored
+			manager.close();
+			CourseManager restarted = new CourseManager(termFile.toString(), journalFile.toString());
+			assertEquals(4, restarted.getCourse(1).getStudents().size());
+			restarted.close();
+		} finally {
+			Files.deleteIfExists(termFile);
+			Files.deleteIfExists(journalFile);
+		}
+	}
+	
+	@Test
+	public void loadTermsRegistersLoadedTerms() {
+		CourseManager manager = new CourseManager("./term-data/term-with-2-courses-and-2-students.txt");
+		List<TermLoadResult> results = manager.loadTerms("./src/test/resources/test-data");
+		assertEquals(6, results.size());
+		assertEquals(1, results.stream().filter(TermLoadResult::isSuccessful).count()); //FL2019 is already loaded, other files are not terms
+		assertEquals(3.9, manager.calculateCourseAverageGpa("SP2020", 2), 0);
+	}
+	
 	@Test
 	public void generateCoursechedule() {
 		String course1Schedule = "Days: T TH, Times: 6:00PM - 6:30PM, Location : (url: https://swen-646.umuc.edu, 1019 2E 221-B Baker Street London UK 188000)";
@@ -215,6 +615,15 @@ public class CourseManagerTest {
 	}
 	
 	
+	/**
+	 * Saves term FL2019 with its courses moved to tomorrow, students can be added to and removed from them
+	 */
+	private void saveTermWithUpcomingCourses(Path termFile) throws IOException {
+		String content = new String(Files.readAllBytes(Paths.get("./term-data/term-with-2-courses-and-2-students.txt")), StandardCharsets.UTF_8);
+		String tomorrow = new SimpleDateFormat("MM/dd/yyyy").format(new Date(System.currentTimeMillis() + 86400000));
+		Files.write(termFile, content.replace("04/25/2020", tomorrow).getBytes(StandardCharsets.UTF_8));
+	}
+	
 	private Address getAddress() {
 		return new Address("221-B", "Baker Street", "London", "UK", "188000");
 	}
@@ -0,0 +1,99 @@
+package edu.umuc.swen.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import edu.umuc.swen.domain.Term;
+
+/**
+ * @author ezerbo
+ *
+ */
+public class TermRegistryTest {
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String termFileName;
+
+	@Before
+	public void init() throws IOException {
+		File file = folder.newFile("SP2020.txt");
+		Files.copy(Paths.get("./src/test/resources/test-data/term-data-unordered.txt"), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		termFileName = file.getPath();
+	}
+
+	@Test
+	public void getLoadsTermOnFirstAccess() {
+		TermRegistry registry = new TermRegistry();
+		registry.register("SP2020", termFileName);
+		assertTrue(registry.contains("SP2020"));
+		assertFalse(registry.isLoaded("SP2020"));
+		Term term = registry.get("SP2020");
+		assertTrue(registry.isLoaded("SP2020"));
+		assertEquals(3, term.getCourses().size());
+		assertSame(term, registry.get("SP2020"));
+	}
+
+	@Test
+	public void unloadIdleTermsSavesModifiedTerms() {
+		TermRegistry registry = new TermRegistry();
+		registry.register("SP2020", termFileName);
+		registry.modify("SP2020", term -> term.changeStudentGpa(2, 2, 2.5));
+		assertEquals(0, registry.unloadIdleTerms(60000));
+		assertEquals(1, registry.unloadIdleTerms(0));
+		assertFalse(registry.isLoaded("SP2020"));
+		assertEquals(2.5, registry.read("SP2020", term -> term.calculateCourseAverageGpa(2)), 0);
+	}
+
+	@Test
+	public void unloadIdleTermsKeepsTermsAddedLoaded() {
+		TermRegistry registry = new TermRegistry();
+		registry.add(new Term(termFileName));
+		assertEquals(0, registry.unloadIdleTerms(0));
+		assertTrue(registry.isLoaded("SP2020"));
+	}
+
+	@Test
+	public void registerThrowsExceptionOnDuplicateTermCode() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("A term is already registered with code : SP2020");
+		TermRegistry registry = new TermRegistry();
+		registry.register("SP2020", termFileName);
+		registry.register("SP2020", termFileName);
+	}
+
+	@Test
+	public void getThrowsExceptionOnUnknownTermCode() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("No term registered with code : FL2019");
+		new TermRegistry().get("FL2019");
+	}
+
+	@Test
+	public void getThrowsExceptionWhenFileHoldsAnotherTerm() {
+		expectedException.expect(RuntimeException.class);
+		expectedException.expectMessage("holds term 'SP2020', expected term 'FL2020'");
+		TermRegistry registry = new TermRegistry();
+		registry.register("FL2020", termFileName);
+		registry.get("FL2020");
+	}
+
+}